@@ -15,16 +15,18 @@
  */
 package com.haarman.listviewanimations;
 
-import java.util.ArrayList;
-
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.support.v4.util.LruCache;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.AbsListView;
 import android.widget.ImageView;
 import android.widget.ListView;
@@ -36,7 +38,16 @@ import com.haarman.listviewanimations.swinginadapters.prepared.SwingBottomInAnim
 
 public class GoogleCardsActivity extends BaseActivity implements OnDismissCallback {
 
+	private static final long MAXFRAMEINTERVALMILLIS = 100;
+	private static final int FRAMESPERMEASUREMENT = 30;
+
 	private GoogleCardsAdapter mGoogleCardsAdapter;
+	private SwingBottomInAnimationAdapter mSwingBottomInAnimationAdapter;
+	private boolean mHardwareLayerEnabled;
+
+	private long mLastFrameMillis;
+	private long mTotalFrameMillis;
+	private int mFrameCount;
 
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
@@ -46,31 +57,77 @@ public class GoogleCardsActivity extends BaseActivity implements OnDismissCallba
 		ListView listView = (ListView) findViewById(R.id.activity_googlecards_listview);
 
 		mGoogleCardsAdapter = new GoogleCardsAdapter(this);
-		SwingBottomInAnimationAdapter swingBottomInAnimationAdapter = new SwingBottomInAnimationAdapter(new SwipeDismissAdapter(mGoogleCardsAdapter, this));
-		swingBottomInAnimationAdapter.setInitialDelayMillis(300);
-		swingBottomInAnimationAdapter.setAbsListView(listView);
+		mSwingBottomInAnimationAdapter = new SwingBottomInAnimationAdapter(new SwipeDismissAdapter(mGoogleCardsAdapter, this));
+		mSwingBottomInAnimationAdapter.setInitialDelayMillis(300);
+		mSwingBottomInAnimationAdapter.setAbsListView(listView);
 
-		listView.setAdapter(swingBottomInAnimationAdapter);
+		listView.setAdapter(mSwingBottomInAnimationAdapter);
+		listView.getViewTreeObserver().addOnPreDrawListener(new FrameTimeListener());
 
 		mGoogleCardsAdapter.addAll(getItems());
 	}
 
-	private ArrayList<Integer> getItems() {
-		ArrayList<Integer> items = new ArrayList<Integer>();
-		for (int i = 0; i < 100; i++) {
-			items.add(i);
+	@Override
+	public boolean onCreateOptionsMenu(Menu menu) {
+		getMenuInflater().inflate(R.menu.menu_googlecards, menu);
+		return super.onCreateOptionsMenu(menu);
+	}
+
+	@Override
+	public boolean onOptionsItemSelected(MenuItem item) {
+		switch (item.getItemId()) {
+		case R.id.menu_googlecards_hardwarelayer:
+			mHardwareLayerEnabled = !mHardwareLayerEnabled;
+			item.setChecked(mHardwareLayerEnabled);
+
+			/* Replay the entry animations to compare the frame times */
+			mSwingBottomInAnimationAdapter.setHardwareLayerEnabled(mHardwareLayerEnabled);
+			mSwingBottomInAnimationAdapter.reset();
+			mGoogleCardsAdapter.notifyDataSetChanged();
+			mTotalFrameMillis = 0;
+			mFrameCount = 0;
+			return true;
+		}
+		return super.onOptionsItemSelected(item);
+	}
+
+	private int[] getItems() {
+		int[] items = new int[100];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = i;
 		}
 		return items;
 	}
 
 	@Override
 	public void onDismiss(AbsListView listView, int[] reverseSortedPositions) {
-		for (int position : reverseSortedPositions) {
-			mGoogleCardsAdapter.remove(position);
+		mGoogleCardsAdapter.removePositions(reverseSortedPositions);
+	}
+
+	/**
+	 * Measures the average time between two consecutive frames while the list is animating or scrolling,
+	 * and shows it as the subtitle of the action bar.
+	 */
+	private class FrameTimeListener implements ViewTreeObserver.OnPreDrawListener {
+
+		@Override
+		public boolean onPreDraw() {
+			long now = SystemClock.uptimeMillis();
+			long frameMillis = now - mLastFrameMillis;
+			mLastFrameMillis = now;
+
+			if (frameMillis < MAXFRAMEINTERVALMILLIS) {
+				mTotalFrameMillis += frameMillis;
+				mFrameCount++;
+				if (mFrameCount % FRAMESPERMEASUREMENT == 0) {
+					getSupportActionBar().setSubtitle(getString(R.string.averageframetime, (float) mTotalFrameMillis / mFrameCount));
+				}
+			}
+			return true;
 		}
 	}
 
-	private static class GoogleCardsAdapter extends ArrayAdapter<Integer> {
+	private static class GoogleCardsAdapter extends IntArrayAdapter {
 
 		private Context mContext;
 		private LruCache<Integer, Bitmap> mMemoryCache;
@@ -108,7 +165,7 @@ public class GoogleCardsActivity extends BaseActivity implements OnDismissCallba
 				viewHolder = (ViewHolder) view.getTag();
 			}
 
-			viewHolder.textView.setText("This is card " + (getItem(position) + 1));
+			viewHolder.textView.setText("This is card " + (get(position) + 1));
 			setImageView(viewHolder, position);
 
 			return view;
@@ -116,7 +173,7 @@ public class GoogleCardsActivity extends BaseActivity implements OnDismissCallba
 
 		private void setImageView(ViewHolder viewHolder, int position) {
 			int imageResId;
-			switch (getItem(position) % 5) {
+			switch (get(position) % 5) {
 			case 0:
 				imageResId = R.drawable.img_nature1;
 				break;
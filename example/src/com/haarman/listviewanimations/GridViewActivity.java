@@ -10,10 +10,10 @@ import android.support.v7.app.ActionBarActivity;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.GridView;
 import android.widget.ImageView;
 
 import com.haarman.listviewanimations.swinginadapters.prepared.SwingBottomInAnimationAdapter;
+import com.haarman.listviewanimations.view.DynamicGridView;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,7 +29,7 @@ public class GridViewActivity extends ActionBarActivity {
 		super.onCreate(savedInstanceState);
 		setContentView(R.layout.activity_gridview);
 
-		GridView gridView = (GridView) findViewById(R.id.activity_gridview_gv);
+		DynamicGridView gridView = (DynamicGridView) findViewById(R.id.activity_gridview_gv);
 		SwingBottomInAnimationAdapter swingBottomInAnimationAdapter = new SwingBottomInAnimationAdapter(new MyAdapter(this, getItems()));
 		swingBottomInAnimationAdapter.setAbsListView(gridView);
 		swingBottomInAnimationAdapter.setInitialDelayMillis(300);
@@ -84,9 +84,7 @@ public class AnimateDismissActivity extends BaseActivity {
 
 		@Override
 		public void onDismiss(AbsListView listView, int[] reverseSortedPositions) {
-			for (int position : reverseSortedPositions) {
-				mAdapter.remove(position);
-			}
+			mAdapter.removePositions(reverseSortedPositions);
 		}
 	}
 
@@ -61,9 +61,7 @@ public class SwipeDismissActivity extends MyListActivity implements OnNavigation
 
 	@Override
 	public void onDismiss(AbsListView listView, int[] reverseSortedPositions) {
-		for (int position : reverseSortedPositions) {
-			mAdapter.remove(position);
-		}
+		mAdapter.removePositions(reverseSortedPositions);
 		Toast.makeText(this, "Removed positions: " + Arrays.toString(reverseSortedPositions), Toast.LENGTH_SHORT).show();
 	}
 
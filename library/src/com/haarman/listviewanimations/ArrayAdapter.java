@@ -16,23 +16,84 @@
 package com.haarman.listviewanimations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import android.widget.BaseAdapter;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
 
 import com.haarman.listviewanimations.view.DynamicListView;
+import com.haarman.listviewanimations.view.DynamicListView.Movable;
 import com.haarman.listviewanimations.view.DynamicListView.Swappable;
 
 /**
  * A true {@link ArrayList} adapter providing access to all ArrayList methods.
- * Also implements {@link Swappable} for easy item swapping.
+ * Also implements {@link Swappable} for easy item swapping, and {@link Movable}
+ * for moving an item in a single operation.
+ * Every modification is reported to the registered {@link OnItemsChangedListener}s
+ * before {@link #notifyDataSetChanged()} is called, see {@link ObservableAdapter}.
+ * <p>
+ * By default the position of an item is used as its id. Set an {@link IdExtractor}
+ * using {@link #setIdExtractor(IdExtractor)} to provide stable ids, as required by
+ * {@link DynamicListView}.
+ * <p>
+ * Like any adapter, an ArrayAdapter must be modified on the main thread. Other threads
+ * can use {@link #stageEdit(Edit)} to have modifications applied on the next frame, and
+ * {@link #getSnapshot()} to read the contents once {@link #setSnapshotEnabled(boolean) enabled}.
  */
-public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicListView.Swappable {
+public abstract class ArrayAdapter<T> extends ObservableAdapter implements DynamicListView.Swappable, DynamicListView.Movable {
 
 	protected List<T> mItems;
 
+	private static Executor sDiffExecutor;
+
+	private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+	private int mSubmitGeneration;
+	private int mModificationCount;
+
+	private IdExtractor<T> mIdExtractor;
+
+	/**
+	 * Maps the id of every item to its position, or null if it needs to be rebuilt.
+	 * May contain stale entries for ids that are no longer in the list.
+	 */
+	private Map<Long, Integer> mPositionsById;
+
+	private final ConcurrentLinkedQueue<Edit<T>> mStagedEdits = new ConcurrentLinkedQueue<Edit<T>>();
+	private final AtomicBoolean mFrameScheduled = new AtomicBoolean();
+	private final Runnable mFrameRunnable = new Runnable() {
+
+		@Override
+		public void run() {
+			doFrame();
+		}
+	};
+	private final Runnable mPostFrameRunnable = new Runnable() {
+
+		@Override
+		public void run() {
+			postFrameCallback();
+		}
+	};
+	private FrameCallbackCompat mFrameCallback;
+
+	private boolean mSnapshotEnabled;
+	private boolean mSnapshotDirty;
+	private volatile List<T> mSnapshot;
+
 	/**
 	 * Creates a new ArrayAdapter with an empty list.
 	 */
@@ -46,7 +107,17 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 */
 	
 	public ArrayAdapter(List<T> items) {
-		mItems = new ArrayList<T>();
+		this(items, new ArrayList<T>());
+	}
+
+	/**
+	 * Creates a new {@link ArrayAdapter} which stores its items in given empty
+	 * backing list, filled with a <b>copy</b> of the specified list. Use a
+	 * {@link GapList} as backing list when items are inserted and removed
+	 * around the same position often.
+	 */
+	public ArrayAdapter(List<T> items, List<T> backingList) {
+		mItems = backingList;
 		if (items != null) {
 			mItems.addAll(items);
 		}
@@ -65,6 +136,53 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 
 	@Override
 	public long getItemId(int position) {
+		if (mIdExtractor != null) {
+			return mIdExtractor.getItemId(mItems.get(position));
+		}
+		return position;
+	}
+
+	@Override
+	public boolean hasStableIds() {
+		return mIdExtractor != null;
+	}
+
+	/**
+	 * Sets the {@link IdExtractor} which provides the ids of the items. When set, {@link #hasStableIds()} returns true,
+	 * and {@link #getPositionForId(long)} and {@link #indexOf(Object)} look up positions by id in constant time.
+	 * The index behind these lookups is built on the first lookup, and updated as the items change: inserting or
+	 * removing items only updates the positions after them. The ids of the items in the list should be unique.
+	 * Pass null to use positions as ids again.
+	 */
+	public void setIdExtractor(IdExtractor<T> idExtractor) {
+		mIdExtractor = idExtractor;
+		mPositionsById = null;
+		notifyDataSetChanged();
+	}
+
+	public IdExtractor<T> getIdExtractor() {
+		return mIdExtractor;
+	}
+
+	/**
+	 * Returns the position of the item with given id, or -1 if there is no such item.
+	 */
+	public int getPositionForId(long id) {
+		if (mIdExtractor == null) {
+			return id >= 0 && id < mItems.size() ? (int) id : -1;
+		}
+
+		if (mPositionsById == null) {
+			mPositionsById = new HashMap<Long, Integer>(mItems.size() * 2);
+			for (int i = 0; i < mItems.size(); i++) {
+				mPositionsById.put(mIdExtractor.getItemId(mItems.get(i)), i);
+			}
+		}
+
+		Integer position = mPositionsById.get(id);
+		if (position == null || position >= mItems.size() || mIdExtractor.getItemId(mItems.get(position)) != id) {
+			return -1;
+		}
 		return position;
 	}
 
@@ -74,7 +192,7 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	// @ requires item != null;
 	public void add(T item) {
 		mItems.add(item);
-		notifyDataSetChanged();
+		notifyItemsInserted(mItems.size() - 1, 1);
 	}
 
 	/**
@@ -82,7 +200,7 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 */
 	public void add(int position, T item) {
 		mItems.add(position, item);
-		notifyDataSetChanged();
+		notifyItemsInserted(position, 1);
 	}
 
 	/**
@@ -91,8 +209,9 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 * Iterator.
 	 */
 	public void addAll(Collection<? extends T> items) {
+		int position = mItems.size();
 		mItems.addAll(items);
-		notifyDataSetChanged();
+		notifyItemsInserted(position, mItems.size() - position);
 	}
 
 	/**
@@ -100,8 +219,9 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 * they are specified.
 	 */
 	public void addAll(T... items) {
+		int position = mItems.size();
 		Collections.addAll(mItems, items);
-		notifyDataSetChanged();
+		notifyItemsInserted(position, items.length);
 	}
 
 	/**
@@ -109,8 +229,9 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 * starting at the specified position.
 	 */
 	public void addAll(int position, Collection<? extends T> items) {
+		int size = mItems.size();
 		mItems.addAll(position, items);
-		notifyDataSetChanged();
+		notifyItemsInserted(position, mItems.size() - size);
 	}
 
 	/**
@@ -118,18 +239,17 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 * position.
 	 */
 	public void addAll(int position, T... items) {
-		for (int i = position; i < (items.length + position); i++) {
-			mItems.add(i, items[i]);
-		}
-		notifyDataSetChanged();
+		mItems.addAll(position, Arrays.asList(items));
+		notifyItemsInserted(position, items.length);
 	}
 
 	/**
 	 * Removes all of the elements from the list.
 	 */
 	public void clear() {
+		int size = mItems.size();
 		mItems.clear();
-		notifyDataSetChanged();
+		notifyItemsRemoved(0, size);
 	}
 
 	/**
@@ -138,15 +258,17 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 */
 	public void set(int position, T item) {
 		mItems.set(position, item);
-		notifyDataSetChanged();
+		notifyItemsChanged(position, 1);
 	}
 
 	/**
 	 * Removes the specified element from the list
 	 */
 	public void remove(T item) {
-		mItems.remove(item);
-		notifyDataSetChanged();
+		int position = mItems.indexOf(item);
+		if (position != -1) {
+			remove(position);
+		}
 	}
 
 	/**
@@ -154,20 +276,59 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 */
 	public void remove(int position) {
 		mItems.remove(position);
-		notifyDataSetChanged();
+		notifyItemsRemoved(position, 1);
 	}
 
 	/**
 	 * Removes all elements at the specified positions in the list
 	 */
 	public void removePositions(Collection<Integer> positions) {
-		ArrayList<Integer> positionsList = new ArrayList<Integer>(positions);
-		Collections.sort(positionsList);
-		Collections.reverse(positionsList);
-		for (int position : positionsList) {
-			mItems.remove(position);
+		int[] positionsArray = new int[positions.size()];
+		int i = 0;
+		for (int position : positions) {
+			positionsArray[i++] = position;
 		}
-		notifyDataSetChanged();
+		removePositions(positionsArray);
+	}
+
+	/**
+	 * Removes all elements at the specified positions in the list. The positions
+	 * do not need to be sorted, and duplicate positions are ignored. The list is
+	 * compacted in a single pass.
+	 */
+	public void removePositions(int... positions) {
+		if (positions.length == 0) {
+			return;
+		}
+
+		int[] sortedPositions = positions.clone();
+		Arrays.sort(sortedPositions);
+
+		int size = mItems.size();
+		if (sortedPositions[0] < 0 || sortedPositions[sortedPositions.length - 1] >= size) {
+			throw new IndexOutOfBoundsException("Invalid positions " + Arrays.toString(positions) + ", size is " + size);
+		}
+
+		beginBatch();
+		Map<Long, Integer> positionsById = suspendPositionsById();
+		int next = 0;
+		int write = sortedPositions[0];
+		for (int read = write; read < size; read++) {
+			if (next < sortedPositions.length && sortedPositions[next] == read) {
+				notifyItemsRemoved(write, 1);
+				while (next < sortedPositions.length && sortedPositions[next] == read) {
+					next++;
+				}
+			} else {
+				if (write != read) {
+					mItems.set(write, mItems.get(read));
+				}
+				write++;
+			}
+		}
+		mItems.subList(write, size).clear();
+		resumePositionsById(positionsById, sortedPositions[0]);
+		commitBatch();
 	}
 
 	/**
@@ -175,8 +336,7 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 * specified collection
 	 */
 	public void removeAll(Collection<T> items) {
-		mItems.removeAll(items);
-		notifyDataSetChanged();
+		removeItems(items, true);
 	}
 
 	/**
@@ -184,8 +344,36 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 * collection
 	 */
 	public void retainAll(Collection<T> items) {
-		mItems.retainAll(items);
-		notifyDataSetChanged();
+		removeItems(items, false);
+	}
+
+	/**
+	 * Removes the elements which are (or are not) contained in given collection, compacting the list in a single pass.
+	 * Unless the collection is a {@link Set}, its elements are copied into a {@link HashSet} first.
+	 */
+	private void removeItems(Collection<T> items, boolean removeContained) {
+		Collection<T> lookup = items instanceof Set ? items : new HashSet<T>(items);
+
+		beginBatch();
+		Map<Long, Integer> positionsById = suspendPositionsById();
+		int size = mItems.size();
+		int write = 0;
+		int firstRemoved = size;
+		for (int read = 0; read < size; read++) {
+			T item = mItems.get(read);
+			if (lookup.contains(item) == removeContained) {
+				firstRemoved = Math.min(firstRemoved, read);
+				notifyItemsRemoved(write, 1);
+			} else {
+				if (write != read) {
+					mItems.set(write, item);
+				}
+				write++;
+			}
+		}
+		mItems.subList(write, size).clear();
+		resumePositionsById(positionsById, firstRemoved);
+		commitBatch();
 	}
 
 	/**
@@ -194,29 +382,374 @@ public abstract class ArrayAdapter<T> extends BaseAdapter implements DynamicList
 	 * formally, returns the lowest position <tt>i</tt> such that
 	 * <tt>(o==null&nbsp;?&nbsp;get(i)==null&nbsp;:&nbsp;o.equals(get(i)))</tt>,
 	 * or -1 if there is no such position.
+	 * <p>
+	 * If an {@link IdExtractor} has been set, this returns the position of the
+	 * item with the same id instead.
 	 */
 	public int indexOf(T item) {
+		if (mIdExtractor != null) {
+			return getPositionForId(mIdExtractor.getItemId(item));
+		}
 		return mItems.indexOf(item);
 	}
 
 	@Override
 	public void swapItems(int positionOne, int positionTwo) {
-		T temp = getItem(positionOne);
-		set(positionOne, getItem(positionTwo));
-		set(positionTwo, temp);
+		T temp = mItems.get(positionOne);
+		mItems.set(positionOne, mItems.get(positionTwo));
+		mItems.set(positionTwo, temp);
+		beginBatch();
+		notifyItemsChanged(positionOne, 1);
+		notifyItemsChanged(positionTwo, 1);
+		commitBatch();
 	}
-	
-	private BaseAdapter mDataSetChangedSlavedAdapter;
-	
-	public void propagateNotifyDataSetChanged(BaseAdapter slavedAdapter) {
-		mDataSetChangedSlavedAdapter = slavedAdapter;
+
+	@Override
+	public void moveItem(int fromPosition, int toPosition) {
+		if (fromPosition == toPosition) {
+			return;
+		}
+
+		if (fromPosition < toPosition) {
+			Collections.rotate(mItems.subList(fromPosition, toPosition + 1), -1);
+		} else {
+			Collections.rotate(mItems.subList(toPosition, fromPosition + 1), 1);
+		}
+		notifyItemMoved(fromPosition, toPosition);
+	}
+
+	/**
+	 * Replaces the contents of this adapter with a <b>copy</b> of the specified list, computing the differences
+	 * between the current and the new contents on a shared background thread.
+	 * @see #submitList(List, Executor)
+	 */
+	public void submitList(List<T> items) {
+		submitList(items, getDiffExecutor());
+	}
+
+	/**
+	 * Replaces the contents of this adapter with a <b>copy</b> of the specified list. Instead of reporting the whole
+	 * list as removed and inserted, the shortest sequence of insertions and removals turning the current contents
+	 * into the new contents is computed on given {@link Executor}, and only those are reported to the
+	 * {@link OnItemsChangedListener}s, followed by a single call to {@link #notifyDataSetChanged()}.
+	 * Items which are the same according to {@link #areItemsTheSame(Object, Object)}, but not according to
+	 * {@link #areContentsTheSame(Object, Object)}, are reported as changed. Moved items are reported as a removal
+	 * and an insertion.
+	 * <p>
+	 * Must be called on the main thread; the new contents are applied on the main thread as well.
+	 * If this method is called again before the differences have been applied, the earlier call is discarded.
+	 * If the adapter is modified in the meantime, the differences are computed again.
+	 */
+	public void submitList(final List<T> items, final Executor executor) {
+		final int generation = ++mSubmitGeneration;
+		final int modificationCount = mModificationCount;
+		final List<T> oldItems = new ArrayList<T>(mItems);
+		final List<T> newItems = items == null ? new ArrayList<T>() : new ArrayList<T>(items);
+
+		executor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				final int[] matches = ListDiff.diff(oldItems.size(), newItems.size(), new ListDiff.ItemComparator() {
+
+					@Override
+					public boolean areItemsTheSame(int oldPosition, int newPosition) {
+						return ArrayAdapter.this.areItemsTheSame(oldItems.get(oldPosition), newItems.get(newPosition));
+					}
+				});
+
+				mMainHandler.post(new Runnable() {
+
+					@Override
+					public void run() {
+						if (generation != mSubmitGeneration) {
+							return;
+						}
+						if (modificationCount != mModificationCount) {
+							submitList(newItems, executor);
+							return;
+						}
+						applyDiff(oldItems, newItems, matches);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Replaces the contents with newItems, and reports the gaps between the matching runs as removals and insertions.
+	 * The changes are reported from the end of the list to the start, so every position is valid at the time it is reported.
+	 * If no change is found, the observers are notified anyway, since the contents have been replaced.
+	 */
+	private void applyDiff(List<T> oldItems, List<T> newItems, int[] matches) {
+		int modificationCount = mModificationCount;
+		beginBatch();
+		mItems.clear();
+		mItems.addAll(newItems);
+		Map<Long, Integer> positionsById = suspendPositionsById();
+
+		int oldEnd = oldItems.size();
+		int newEnd = newItems.size();
+		for (int i = matches.length - 3; i >= 0; i -= 3) {
+			int oldStart = matches[i];
+			int newStart = matches[i + 1];
+			int length = matches[i + 2];
+
+			if (oldEnd > oldStart + length) {
+				notifyItemsRemoved(oldStart + length, oldEnd - oldStart - length);
+			}
+			if (newEnd > newStart + length) {
+				notifyItemsInserted(oldStart + length, newEnd - newStart - length);
+			}
+			for (int j = length - 1; j >= 0; j--) {
+				if (!areContentsTheSame(oldItems.get(oldStart + j), newItems.get(newStart + j))) {
+					notifyItemsChanged(oldStart + j, 1);
+				}
+			}
+
+			oldEnd = oldStart;
+			newEnd = newStart;
+		}
+		/* The items before the first gap have the same ids at the same positions */
+		boolean hasSamePrefix = matches.length > 0 && matches[0] == 0 && matches[1] == 0;
+		resumePositionsById(positionsById, hasSamePrefix ? matches[2] : 0);
+		commitBatch();
+
+		if (modificationCount == mModificationCount && !isInBatch()) {
+			notifyDataSetChanged();
+		}
+	}
+
+	/**
+	 * Returns whether given items represent the same item, used by {@link #submitList(List, Executor)} to match items
+	 * of the current and the new contents. Compares the ids if an {@link IdExtractor} has been set, and defaults to
+	 * {@link Object#equals(Object)} otherwise. This method is called on a background thread.
+	 */
+	protected boolean areItemsTheSame(T oldItem, T newItem) {
+		IdExtractor<T> idExtractor = mIdExtractor;
+		if (idExtractor != null) {
+			return idExtractor.getItemId(oldItem) == idExtractor.getItemId(newItem);
+		}
+		return oldItem == null ? newItem == null : oldItem.equals(newItem);
+	}
+
+	/**
+	 * Returns whether given items, which are the same according to {@link #areItemsTheSame(Object, Object)}, have the same
+	 * contents. If not, {@link #submitList(List, Executor)} reports the item as changed. Defaults to {@link Object#equals(Object)}.
+	 */
+	protected boolean areContentsTheSame(T oldItem, T newItem) {
+		return oldItem == null ? newItem == null : oldItem.equals(newItem);
+	}
+
+	/**
+	 * Stages given {@link Edit} to be applied on the main thread at the start of the next frame. All edits staged
+	 * before a frame are applied in a single batch, so they result in a single call to {@link #notifyDataSetChanged()}.
+	 * This method can be called from any thread.
+	 */
+	public void stageEdit(Edit<T> edit) {
+		mStagedEdits.add(edit);
+		scheduleFrame();
+	}
+
+	/**
+	 * Enables or disables snapshots. When enabled, an immutable copy of the contents of this adapter is published
+	 * right away, and again at the end of every frame in which the adapter was modified. Must be called on the main thread.
+	 * @see #getSnapshot()
+	 */
+	public void setSnapshotEnabled(boolean snapshotEnabled) {
+		mSnapshotEnabled = snapshotEnabled;
+		if (snapshotEnabled) {
+			publishSnapshot();
+		} else {
+			mSnapshot = null;
+		}
+	}
+
+	/**
+	 * Returns the last immutable copy of the contents of this adapter, or null if snapshots are not enabled.
+	 * This method can be called from any thread, and does not block.
+	 * @see #setSnapshotEnabled(boolean)
+	 */
+	public List<T> getSnapshot() {
+		return mSnapshot;
+	}
+
+	private void publishSnapshot() {
+		mSnapshotDirty = false;
+		mSnapshot = Collections.unmodifiableList(new ArrayList<T>(mItems));
+	}
+
+	private void scheduleFrame() {
+		if (mFrameScheduled.compareAndSet(false, true)) {
+			if (Build.VERSION.SDK_INT < 16) {
+				mMainHandler.post(mFrameRunnable);
+			} else if (Looper.myLooper() == Looper.getMainLooper()) {
+				postFrameCallback();
+			} else {
+				/* The Choreographer is bound to the thread it is obtained on */
+				mMainHandler.post(mPostFrameRunnable);
+			}
+		}
+	}
+
+	/**
+	 * Posts {@link #mFrameRunnable} to the {@link Choreographer}. Must be called on the main thread.
+	 */
+	private void postFrameCallback() {
+		if (mFrameCallback == null) {
+			mFrameCallback = new FrameCallbackCompat(mFrameRunnable);
+		}
+		mFrameCallback.post();
+	}
+
+	/**
+	 * Applies the staged {@link Edit}s, and publishes a new snapshot if the contents have changed.
+	 * If an edit throws, the edits applied before it are still reported, the exception is rethrown,
+	 * and the remaining edits are applied in the next frame.
+	 */
+	private void doFrame() {
+		mFrameScheduled.set(false);
+
+		if (!mStagedEdits.isEmpty()) {
+			beginBatch();
+			try {
+				Edit<T> edit;
+				while ((edit = mStagedEdits.poll()) != null) {
+					edit.apply(this);
+				}
+			} finally {
+				commitBatch();
+				if (!mStagedEdits.isEmpty()) {
+					scheduleFrame();
+				}
+			}
+		}
+
+		if (mSnapshotEnabled && mSnapshotDirty) {
+			publishSnapshot();
+		}
+	}
+
+	private static synchronized Executor getDiffExecutor() {
+		if (sDiffExecutor == null) {
+			sDiffExecutor = Executors.newSingleThreadExecutor();
+		}
+		return sDiffExecutor;
 	}
 
 	@Override
-	public void notifyDataSetChanged() {
-		super.notifyDataSetChanged();
-		if (mDataSetChangedSlavedAdapter != null) {
-			mDataSetChangedSlavedAdapter.notifyDataSetChanged();
+	void onChange(int type, int first, int second) {
+		mModificationCount++;
+		updatePositionsById(type, first, second);
+
+		if (mSnapshotEnabled && !mSnapshotDirty) {
+			mSnapshotDirty = true;
+			scheduleFrame();
+		}
+	}
+
+	/**
+	 * Keeps {@link #mPositionsById} in sync with a change which has just been applied to {@link #mItems}.
+	 * Only the positions of the items from the start of the change onwards are updated. The entries of
+	 * removed items are left in place, and discarded by the lookups.
+	 */
+	private void updatePositionsById(int type, int first, int second) {
+		if (mPositionsById == null) {
+			return;
+		}
+
+		int size = mItems.size();
+		switch (type) {
+		case CHANGE_CHANGED:
+			putPositionsById(first, first + second);
+			break;
+		case CHANGE_INSERTED:
+		case CHANGE_REMOVED:
+			putPositionsById(first, size);
+			break;
+		case CHANGE_MOVED:
+			putPositionsById(Math.min(first, second), Math.max(first, second) + 1);
+			break;
+		default:
+			mPositionsById = null;
+			break;
+		}
+		trimPositionsById();
+	}
+
+	/**
+	 * Stops updating {@link #mPositionsById} for the changes reported while {@link #mItems} is rearranged
+	 * in a single pass, and returns the index to pass to {@link #resumePositionsById(Map, int)} afterwards.
+	 */
+	private Map<Long, Integer> suspendPositionsById() {
+		Map<Long, Integer> positionsById = mPositionsById;
+		mPositionsById = null;
+		return positionsById;
+	}
+
+	/**
+	 * Restores given index, and updates the positions of the items from given position onwards.
+	 */
+	private void resumePositionsById(Map<Long, Integer> positionsById, int start) {
+		mPositionsById = positionsById;
+		if (mPositionsById != null) {
+			putPositionsById(start, mItems.size());
+		}
+		trimPositionsById();
+	}
+
+	private void trimPositionsById() {
+		int size = mItems.size();
+		if (mPositionsById == null) {
+			return;
+		} else if (size == 0) {
+			mPositionsById.clear();
+		} else if (mPositionsById.size() > 2 * size + 16) {
+			/* Too many stale entries */
+			mPositionsById = null;
+		}
+	}
+
+	private void putPositionsById(int start, int end) {
+		for (int i = start; i < end && i < mItems.size(); i++) {
+			mPositionsById.put(mIdExtractor.getItemId(mItems.get(i)), i);
+		}
+	}
+
+	/**
+	 * Provides the stable id of an item.
+	 */
+	public interface IdExtractor<T> {
+		long getItemId(T item);
+	}
+
+	/**
+	 * A modification staged from any thread using {@link ArrayAdapter#stageEdit(Edit)}.
+	 */
+	public interface Edit<T> {
+
+		/**
+		 * Applies this edit to given adapter. Called on the main thread.
+		 */
+		void apply(ArrayAdapter<T> adapter);
+	}
+
+	@TargetApi(16)
+	private static class FrameCallbackCompat implements Choreographer.FrameCallback {
+
+		private final Runnable mRunnable;
+
+		FrameCallbackCompat(Runnable runnable) {
+			mRunnable = runnable;
+		}
+
+		void post() {
+			Choreographer.getInstance().postFrameCallback(this);
+		}
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			mRunnable.run();
 		}
 	}
 }
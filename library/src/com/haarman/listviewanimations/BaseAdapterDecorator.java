@@ -23,6 +23,7 @@ import android.widget.BaseAdapter;
 import android.widget.SectionIndexer;
 
 import com.haarman.listviewanimations.view.DynamicListView;
+import com.haarman.listviewanimations.view.DynamicListView.Movable;
 import com.haarman.listviewanimations.view.DynamicListView.Swappable;
 
 /**
@@ -31,11 +32,34 @@ import com.haarman.listviewanimations.view.DynamicListView.Swappable;
  *
  * Classes extending this class can override methods and provide extra
  * functionality before or after calling the super method.
+ *
+ * Calls to {@link #getCount()}, {@link #getItem(int)}, {@link #getItemId(int)}, {@link #isEnabled(int)},
+ * {@link #getItemViewType(int)}, the {@link SectionIndexer} methods, {@link #swapItems(int, int)} and {@link #moveItem(int, int)} skip
+ * decorated BaseAdapterDecorators that do not override them, so that these calls take a single
+ * hop to the first adapter in the chain that handles them, regardless of the number of decorators.
  */
-public abstract class BaseAdapterDecorator extends BaseAdapter implements SectionIndexer, DynamicListView.Swappable {
+public abstract class BaseAdapterDecorator extends BaseAdapter implements SectionIndexer, DynamicListView.Swappable, DynamicListView.Movable {
+
+	private static final int DISPATCH_GETCOUNT = 0;
+	private static final int DISPATCH_GETITEM = 1;
+	private static final int DISPATCH_GETITEMID = 2;
+	private static final int DISPATCH_ISENABLED = 3;
+	private static final int DISPATCH_GETITEMVIEWTYPE = 4;
+
+	private static final String[] DISPATCH_METHOD_NAMES = { "getCount", "getItem", "getItemId", "isEnabled", "getItemViewType" };
+	private static final Class<?>[][] DISPATCH_METHOD_PARAMETER_TYPES = { {}, { int.class }, { int.class }, { int.class }, { int.class } };
 
 	protected final BaseAdapter mDecoratedBaseAdapter;
 
+	/**
+	 * For each dispatched method, the first adapter in the decorator chain that handles the call.
+	 */
+	private final BaseAdapter[] mDispatchTable;
+	private final SectionIndexer mSectionIndexer;
+	private final Swappable mSwappable;
+	private final Movable mMovable;
+	private final BaseAdapter mRootAdapter;
+
 	private AbsListView mListView;
 
 	private boolean mIsParentHorizontalScrollContainer;
@@ -43,6 +67,49 @@ public abstract class BaseAdapterDecorator extends BaseAdapter implements Sectio
 
 	public BaseAdapterDecorator(BaseAdapter baseAdapter) {
 		mDecoratedBaseAdapter = baseAdapter;
+
+		mDispatchTable = new BaseAdapter[DISPATCH_METHOD_NAMES.length];
+		for (int i = 0; i < mDispatchTable.length; i++) {
+			mDispatchTable[i] = resolveDispatchTarget(i);
+		}
+
+		if (baseAdapter instanceof BaseAdapterDecorator) {
+			BaseAdapterDecorator decorator = (BaseAdapterDecorator) baseAdapter;
+			mSectionIndexer = overridesSectionIndexer(decorator) ? decorator : decorator.mSectionIndexer;
+			mSwappable = overrides(decorator, "swapItems", int.class, int.class) ? decorator : decorator.mSwappable;
+			mMovable = overrides(decorator, "moveItem", int.class, int.class) ? decorator : decorator.mMovable;
+			mRootAdapter = decorator.mRootAdapter;
+		} else {
+			mSectionIndexer = baseAdapter instanceof SectionIndexer ? (SectionIndexer) baseAdapter : null;
+			mSwappable = baseAdapter instanceof Swappable ? (Swappable) baseAdapter : null;
+			mMovable = baseAdapter instanceof Movable ? (Movable) baseAdapter : null;
+			mRootAdapter = baseAdapter;
+		}
+	}
+
+	private BaseAdapter resolveDispatchTarget(int method) {
+		if (mDecoratedBaseAdapter instanceof BaseAdapterDecorator) {
+			BaseAdapterDecorator decorator = (BaseAdapterDecorator) mDecoratedBaseAdapter;
+			if (!overrides(decorator, DISPATCH_METHOD_NAMES[method], DISPATCH_METHOD_PARAMETER_TYPES[method])) {
+				return decorator.mDispatchTable[method];
+			}
+		}
+		return mDecoratedBaseAdapter;
+	}
+
+	private static boolean overridesSectionIndexer(BaseAdapterDecorator decorator) {
+		return overrides(decorator, "getPositionForSection", int.class) || overrides(decorator, "getSectionForPosition", int.class) || overrides(decorator, "getSections");
+	}
+
+	/**
+	 * Returns whether the class of given decorator overrides the BaseAdapterDecorator implementation of given method.
+	 */
+	private static boolean overrides(BaseAdapterDecorator decorator, String methodName, Class<?>... parameterTypes) {
+		try {
+			return decorator.getClass().getMethod(methodName, parameterTypes).getDeclaringClass() != BaseAdapterDecorator.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
 	}
 
 	public void setAbsListView(AbsListView listView) {
@@ -63,19 +130,34 @@ public abstract class BaseAdapterDecorator extends BaseAdapter implements Sectio
 		return mListView;
 	}
 
+	/**
+	 * Returns the {@link AbsListView.RecyclerListener} that this decorator, or one of the decorators it wraps,
+	 * has set to the {@link AbsListView}. Since an AbsListView only supports a single RecyclerListener,
+	 * decorators that set one should override this method and forward calls to the RecyclerListener
+	 * returned by the super implementation.
+	 *
+	 * @return the RecyclerListener, or null if none was set.
+	 */
+	public AbsListView.RecyclerListener getRecyclerListener() {
+		if (mDecoratedBaseAdapter instanceof BaseAdapterDecorator) {
+			return ((BaseAdapterDecorator) mDecoratedBaseAdapter).getRecyclerListener();
+		}
+		return null;
+	}
+
 	@Override
 	public int getCount() {
-		return mDecoratedBaseAdapter.getCount();
+		return mDispatchTable[DISPATCH_GETCOUNT].getCount();
 	}
 
 	@Override
 	public Object getItem(int position) {
-		return mDecoratedBaseAdapter.getItem(position);
+		return mDispatchTable[DISPATCH_GETITEM].getItem(position);
 	}
 
 	@Override
 	public long getItemId(int position) {
-		return mDecoratedBaseAdapter.getItemId(position);
+		return mDispatchTable[DISPATCH_GETITEMID].getItemId(position);
 	}
 
 	@Override
@@ -95,7 +177,7 @@ public abstract class BaseAdapterDecorator extends BaseAdapter implements Sectio
 
 	@Override
 	public int getItemViewType(int position) {
-		return mDecoratedBaseAdapter.getItemViewType(position);
+		return mDispatchTable[DISPATCH_GETITEMVIEWTYPE].getItemViewType(position);
 	}
 
 	@Override
@@ -115,14 +197,14 @@ public abstract class BaseAdapterDecorator extends BaseAdapter implements Sectio
 
 	@Override
 	public boolean isEnabled(int position) {
-		return mDecoratedBaseAdapter.isEnabled(position);
+		return mDispatchTable[DISPATCH_ISENABLED].isEnabled(position);
 	}
 
 	@Override
 	public void notifyDataSetChanged() {
-		if (!(mDecoratedBaseAdapter instanceof ArrayAdapter<?>)) {
+		if (!(mDecoratedBaseAdapter instanceof ObservableAdapter)) {
 			// fix #35 dirty trick !
-			// leads to an infinite loop when trying because ArrayAdapter triggers notifyDataSetChanged itself
+			// leads to an infinite loop when trying because an ObservableAdapter triggers notifyDataSetChanged itself
 			mDecoratedBaseAdapter.notifyDataSetChanged();
 		}
 	}
@@ -132,8 +214,8 @@ public abstract class BaseAdapterDecorator extends BaseAdapter implements Sectio
 	 * @param force
 	 */
 	public void notifyDataSetChanged(Boolean force) {
-		if ((force) || (!(mDecoratedBaseAdapter instanceof ArrayAdapter<?>))) {
-			// leads to an infinite loop when trying because ArrayAdapter triggers notifyDataSetChanged itself
+		if ((force) || (!(mDecoratedBaseAdapter instanceof ObservableAdapter))) {
+			// leads to an infinite loop when trying because an ObservableAdapter triggers notifyDataSetChanged itself
 			mDecoratedBaseAdapter.notifyDataSetChanged();
 		}
 	}
@@ -155,24 +237,24 @@ public abstract class BaseAdapterDecorator extends BaseAdapter implements Sectio
 
 	@Override
 	public int getPositionForSection(int section) {
-		if (mDecoratedBaseAdapter instanceof SectionIndexer) {
-			return ((SectionIndexer) mDecoratedBaseAdapter).getPositionForSection(section);
+		if (mSectionIndexer != null) {
+			return mSectionIndexer.getPositionForSection(section);
 		}
 		return 0;
 	}
 
 	@Override
 	public int getSectionForPosition(int position) {
-		if (mDecoratedBaseAdapter instanceof SectionIndexer) {
-			return ((SectionIndexer) mDecoratedBaseAdapter).getSectionForPosition(position);
+		if (mSectionIndexer != null) {
+			return mSectionIndexer.getSectionForPosition(position);
 		}
 		return 0;
 	}
 
 	@Override
 	public Object[] getSections() {
-		if (mDecoratedBaseAdapter instanceof SectionIndexer) {
-			return ((SectionIndexer) mDecoratedBaseAdapter).getSections();
+		if (mSectionIndexer != null) {
+			return mSectionIndexer.getSections();
 		}
 		return null;
 	}
@@ -181,10 +263,30 @@ public abstract class BaseAdapterDecorator extends BaseAdapter implements Sectio
 		return mDecoratedBaseAdapter;
 	}
 
+	/**
+	 * Returns the innermost {@link BaseAdapter} of the decorator chain, which is not a BaseAdapterDecorator itself.
+	 */
+	public BaseAdapter getRootAdapter() {
+		return mRootAdapter;
+	}
+
 	@Override
 	public void swapItems(int positionOne, int positionTwo) {
-		if (mDecoratedBaseAdapter instanceof Swappable) {
-			((Swappable) mDecoratedBaseAdapter).swapItems(positionOne, positionTwo);
+		if (mSwappable != null) {
+			mSwappable.swapItems(positionOne, positionTwo);
+		}
+	}
+
+	/**
+	 * Moves the item using the first {@link Movable} adapter in the chain. If there is none,
+	 * the item is moved using a series of {@link #swapItems(int, int)} calls instead.
+	 */
+	@Override
+	public void moveItem(int fromPosition, int toPosition) {
+		if (mMovable != null) {
+			mMovable.moveItem(fromPosition, toPosition);
+		} else if (mSwappable != null) {
+			DynamicListView.moveItemBySwapping(mSwappable, fromPosition, toPosition);
 		}
 	}
 
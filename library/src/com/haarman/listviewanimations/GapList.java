@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A {@link java.util.List} backed by a gap buffer: an array with a gap of unused slots at the position
+ * of the last insertion or removal. Inserting or removing elements near the previous modification
+ * only moves the elements between the two positions, instead of the whole tail of the list as
+ * {@link java.util.ArrayList} does. Random access takes constant time.
+ * <p>
+ * Use as the backing list of an {@link ArrayAdapter} whose items are inserted and removed around
+ * the same position often, see {@link ArrayAdapter#ArrayAdapter(java.util.List, java.util.List)}.
+ */
+public class GapList<E> extends AbstractList<E> implements RandomAccess {
+
+	private static final int MINCAPACITY = 8;
+
+	private Object[] mElements;
+	private int mGapStart;
+	private int mGapEnd;
+
+	public GapList() {
+		this(MINCAPACITY);
+	}
+
+	public GapList(int initialCapacity) {
+		mElements = new Object[Math.max(initialCapacity, MINCAPACITY)];
+		mGapEnd = mElements.length;
+	}
+
+	@Override
+	public int size() {
+		return mElements.length - (mGapEnd - mGapStart);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		checkIndex(index, size());
+		return (E) mElements[toArrayIndex(index)];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E set(int index, E element) {
+		checkIndex(index, size());
+		int arrayIndex = toArrayIndex(index);
+		E previous = (E) mElements[arrayIndex];
+		mElements[arrayIndex] = element;
+		return previous;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		checkIndex(index, size() + 1);
+		ensureGap(1);
+		moveGap(index);
+		mElements[mGapStart++] = element;
+		modCount++;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends E> collection) {
+		checkIndex(index, size() + 1);
+		Object[] elements = collection.toArray();
+		if (elements.length == 0) {
+			return false;
+		}
+
+		ensureGap(elements.length);
+		moveGap(index);
+		System.arraycopy(elements, 0, mElements, mGapStart, elements.length);
+		mGapStart += elements.length;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends E> collection) {
+		return addAll(size(), collection);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E remove(int index) {
+		checkIndex(index, size());
+		moveGap(index);
+		E previous = (E) mElements[mGapEnd];
+		mElements[mGapEnd++] = null;
+		modCount++;
+		return previous;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (fromIndex >= toIndex) {
+			return;
+		}
+
+		moveGap(fromIndex);
+		Arrays.fill(mElements, mGapEnd, mGapEnd + toIndex - fromIndex, null);
+		mGapEnd += toIndex - fromIndex;
+		modCount++;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(mElements, null);
+		mGapStart = 0;
+		mGapEnd = mElements.length;
+		modCount++;
+	}
+
+	private int toArrayIndex(int index) {
+		return index < mGapStart ? index : index + mGapEnd - mGapStart;
+	}
+
+	/**
+	 * Moves the gap to start at given index.
+	 */
+	private void moveGap(int index) {
+		if (index < mGapStart) {
+			int count = mGapStart - index;
+			int gapEnd = mGapEnd - count;
+			System.arraycopy(mElements, index, mElements, gapEnd, count);
+			Arrays.fill(mElements, index, Math.min(mGapStart, gapEnd), null);
+			mGapStart = index;
+			mGapEnd = gapEnd;
+		} else if (index > mGapStart) {
+			int count = index - mGapStart;
+			int gapEnd = mGapEnd + count;
+			System.arraycopy(mElements, mGapEnd, mElements, mGapStart, count);
+			Arrays.fill(mElements, Math.max(mGapEnd, index), gapEnd, null);
+			mGapStart = index;
+			mGapEnd = gapEnd;
+		}
+	}
+
+	/**
+	 * Grows the array if the gap is smaller than given number of slots.
+	 */
+	private void ensureGap(int gapSize) {
+		if (mGapEnd - mGapStart >= gapSize) {
+			return;
+		}
+
+		int size = size();
+		Object[] elements = new Object[Math.max(size + gapSize, mElements.length * 3 / 2 + 1)];
+		int tailSize = mElements.length - mGapEnd;
+		System.arraycopy(mElements, 0, elements, 0, mGapStart);
+		System.arraycopy(mElements, mGapEnd, elements, elements.length - tailSize, tailSize);
+		mGapEnd = elements.length - tailSize;
+		mElements = elements;
+	}
+
+	private static void checkIndex(int index, int limit) {
+		if (index < 0 || index >= limit) {
+			throw new IndexOutOfBoundsException("Invalid index " + index + ", limit is " + limit);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the items two lists have in common, using Myers' O(ND) difference algorithm.
+ * The common prefix and suffix are matched first; if the remaining edit distance exceeds
+ * {@link #MAXEDITDISTANCE}, the remaining items are treated as all different, which keeps
+ * memory use bounded at the cost of a longer edit script.
+ */
+final class ListDiff {
+
+	private static final int MAXEDITDISTANCE = 1000;
+
+	/**
+	 * Decides whether an item of the old list and an item of the new list represent the same item.
+	 */
+	interface ItemComparator {
+		boolean areItemsTheSame(int oldPosition, int newPosition);
+	}
+
+	private ListDiff() {
+	}
+
+	/**
+	 * Returns the runs of matching items of both lists, as consecutive (old position, new position, length)
+	 * triplets ordered by position. The first triplet always starts at (0, 0), and the last triplet is always
+	 * (oldSize, newSize, 0), so every gap between matching runs lies between two triplets.
+	 */
+	static int[] diff(int oldSize, int newSize, ItemComparator comparator) {
+		int prefix = 0;
+		while (prefix < oldSize && prefix < newSize && comparator.areItemsTheSame(prefix, prefix)) {
+			prefix++;
+		}
+
+		int suffix = 0;
+		while (suffix < oldSize - prefix && suffix < newSize - prefix && comparator.areItemsTheSame(oldSize - suffix - 1, newSize - suffix - 1)) {
+			suffix++;
+		}
+
+		List<int[]> snakes = new ArrayList<int[]>();
+		snakes.add(new int[] { 0, 0, prefix });
+		diffMiddle(prefix, oldSize - suffix, prefix, newSize - suffix, comparator, snakes);
+		if (suffix > 0) {
+			snakes.add(new int[] { oldSize - suffix, newSize - suffix, suffix });
+		}
+		snakes.add(new int[] { oldSize, newSize, 0 });
+
+		int[] result = new int[snakes.size() * 3];
+		for (int i = 0; i < snakes.size(); i++) {
+			System.arraycopy(snakes.get(i), 0, result, i * 3, 3);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the matching runs of the given ranges to snakes, in order.
+	 */
+	private static void diffMiddle(int oldStart, int oldEnd, int newStart, int newEnd, ItemComparator comparator, List<int[]> snakes) {
+		int n = oldEnd - oldStart;
+		int m = newEnd - newStart;
+		if (n == 0 || m == 0) {
+			return;
+		}
+
+		int maxD = Math.min(n + m, MAXEDITDISTANCE);
+		int offset = maxD + 1;
+		int[] v = new int[2 * maxD + 3];
+		List<int[]> trace = new ArrayList<int[]>();
+
+		int d;
+		boolean found = false;
+		for (d = 0; d <= maxD && !found; d++) {
+			for (int k = -d; k <= d; k += 2) {
+				int x;
+				if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+					x = v[offset + k + 1];
+				} else {
+					x = v[offset + k - 1] + 1;
+				}
+				int y = x - k;
+				while (x < n && y < m && comparator.areItemsTheSame(oldStart + x, newStart + y)) {
+					x++;
+					y++;
+				}
+				v[offset + k] = x;
+
+				if (x >= n && y >= m) {
+					found = true;
+				}
+			}
+
+			int[] snapshot = new int[2 * d + 1];
+			System.arraycopy(v, offset - d, snapshot, 0, snapshot.length);
+			trace.add(snapshot);
+		}
+
+		if (!found) {
+			/* Too many differences, treat the remaining items as all different */
+			return;
+		}
+
+		int snakeIndex = snakes.size();
+		int x = n;
+		int y = m;
+		for (d = trace.size() - 1; d > 0; d--) {
+			int[] previous = trace.get(d - 1);
+			int k = x - y;
+
+			int previousK;
+			if (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) {
+				previousK = k + 1;
+			} else {
+				previousK = k - 1;
+			}
+			int previousX = previous[previousK + d - 1];
+			int previousY = previousX - previousK;
+
+			int snakeX = previousK == k + 1 ? previousX : previousX + 1;
+			if (x > snakeX) {
+				snakes.add(snakeIndex, new int[] { oldStart + snakeX, newStart + snakeX - k, x - snakeX });
+			}
+
+			x = previousX;
+			y = previousY;
+		}
+
+		if (x > 0) {
+			snakes.add(snakeIndex, new int[] { oldStart, newStart, x });
+		}
+	}
+}
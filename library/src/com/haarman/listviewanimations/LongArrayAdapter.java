@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations;
+
+import java.util.Arrays;
+
+import com.haarman.listviewanimations.view.DynamicListView.Movable;
+import com.haarman.listviewanimations.view.DynamicListView.Swappable;
+
+/**
+ * An adapter backed by a growable {@code long} array, providing the same modification
+ * methods as {@link ArrayAdapter} without boxing the items.
+ * Also implements {@link Swappable} for easy item swapping, and {@link Movable}
+ * for moving an item in a single operation.
+ * Every modification is reported to the registered {@link OnItemsChangedListener}s
+ * before {@link #notifyDataSetChanged()} is called, see {@link ObservableAdapter}.
+ */
+public abstract class LongArrayAdapter extends PrimitiveArrayAdapter<long[]> {
+
+	/**
+	 * Creates a new LongArrayAdapter with an empty array.
+	 */
+	public LongArrayAdapter() {
+		this(null);
+	}
+
+	/**
+	 * Creates a new {@link LongArrayAdapter} with a <b>copy</b> of the specified
+	 * array, or an empty array if items == null.
+	 */
+	public LongArrayAdapter(long[] items) {
+		super(items);
+	}
+
+	@Override
+	long[] newArray(int length) {
+		return new long[length];
+	}
+
+	@Override
+	int length(long[] items) {
+		return items.length;
+	}
+
+	@Override
+	void sort(long[] items) {
+		Arrays.sort(items);
+	}
+
+	@Override
+	boolean isItemIn(long[] sortedItems, int position) {
+		return Arrays.binarySearch(sortedItems, mItems[position]) >= 0;
+	}
+
+	/**
+	 * Returns the item at the specified position, boxed. Use {@link #get(int)} to avoid boxing.
+	 */
+	@Override
+	public Long getItem(int position) {
+		return get(position);
+	}
+
+	/**
+	 * Returns the item at the specified position.
+	 */
+	public long get(int position) {
+		checkPosition(position, mSize);
+		return mItems[position];
+	}
+
+	/**
+	 * Appends the specified element to the end of the array.
+	 */
+	public void add(long item) {
+		add(mSize, item);
+	}
+
+	/**
+	 * Inserts the specified element at the specified position in the array.
+	 */
+	public void add(int position, long item) {
+		checkPosition(position, mSize + 1);
+		makeRoom(position, 1);
+		mItems[position] = item;
+		notifyItemsInserted(position, 1);
+	}
+
+	/**
+	 * Replaces the element at the specified position in this array with the
+	 * specified element.
+	 */
+	public void set(int position, long item) {
+		checkPosition(position, mSize);
+		mItems[position] = item;
+		notifyItemsChanged(position, 1);
+	}
+
+	/**
+	 * Removes the first occurrence of the specified element from the array
+	 */
+	public void removeItem(long item) {
+		int position = indexOf(item);
+		if (position != -1) {
+			remove(position);
+		}
+	}
+
+	/**
+	 * Returns the position of the first occurrence of the specified element in
+	 * this array, or -1 if this array does not contain the element.
+	 */
+	public int indexOf(long item) {
+		for (int i = 0; i < mSize; i++) {
+			if (mItems[i] == item) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.widget.BaseAdapter;
+
+/**
+ * A {@link BaseAdapter} which reports the exact changes made to its items to the registered
+ * {@link OnItemsChangedListener}s before {@link #notifyDataSetChanged()} is called.
+ * Modifications can be grouped using {@link #beginBatch()} and {@link #commitBatch()}.
+ */
+public abstract class ObservableAdapter extends BaseAdapter {
+
+	static final int CHANGE_INSERTED = 0;
+	static final int CHANGE_REMOVED = 1;
+	static final int CHANGE_CHANGED = 2;
+	static final int CHANGE_MOVED = 3;
+
+	private final List<OnItemsChangedListener> mOnItemsChangedListeners = new ArrayList<OnItemsChangedListener>();
+
+	private int mBatchDepth;
+	private boolean mBatchHasChanges;
+
+	/**
+	 * The changes recorded during a batch, as consecutive (type, first argument, second argument) triplets.
+	 */
+	private int[] mBatchChanges = new int[3 * 8];
+	private int mBatchChangeCount;
+
+	/**
+	 * Starts a batch of modifications. Until the matching call to {@link #commitBatch()}, modifications are
+	 * applied to the items right away, but neither the {@link OnItemsChangedListener}s nor the
+	 * {@link android.database.DataSetObserver}s are notified. Batches may be nested; only the outermost
+	 * commit notifies.
+	 */
+	public void beginBatch() {
+		mBatchDepth++;
+	}
+
+	/**
+	 * Ends a batch of modifications started with {@link #beginBatch()}. When this ends the outermost batch, the
+	 * recorded changes are reported to the {@link OnItemsChangedListener}s, with adjacent changes of the same
+	 * kind coalesced into a single range, followed by a single call to {@link #notifyDataSetChanged()}.
+	 */
+	public void commitBatch() {
+		if (mBatchDepth == 0) {
+			throw new IllegalStateException("commitBatch() called without a matching beginBatch()!");
+		}
+
+		mBatchDepth--;
+		if (mBatchDepth == 0 && mBatchHasChanges) {
+			mBatchHasChanges = false;
+			for (int i = 0; i < mBatchChangeCount; i++) {
+				dispatchChange(mBatchChanges[3 * i], mBatchChanges[3 * i + 1], mBatchChanges[3 * i + 2]);
+			}
+			mBatchChangeCount = 0;
+			notifyDataSetChanged();
+		}
+	}
+
+	/**
+	 * Returns whether a batch of modifications started with {@link #beginBatch()} is in progress.
+	 */
+	public boolean isInBatch() {
+		return mBatchDepth > 0;
+	}
+
+	/**
+	 * Registers an {@link OnItemsChangedListener} which is notified of every change made to the items of this adapter.
+	 */
+	public void addOnItemsChangedListener(OnItemsChangedListener listener) {
+		mOnItemsChangedListeners.add(listener);
+	}
+
+	public void removeOnItemsChangedListener(OnItemsChangedListener listener) {
+		mOnItemsChangedListeners.remove(listener);
+	}
+
+	/**
+	 * Notifies the registered {@link OnItemsChangedListener}s that itemCount items have been inserted at positionStart,
+	 * and calls {@link #notifyDataSetChanged()}. Subclasses that modify their items directly should call this method.
+	 */
+	protected void notifyItemsInserted(int positionStart, int itemCount) {
+		notifyChange(CHANGE_INSERTED, positionStart, itemCount);
+	}
+
+	/**
+	 * Notifies the registered {@link OnItemsChangedListener}s that the itemCount items starting at positionStart have been removed,
+	 * and calls {@link #notifyDataSetChanged()}. Subclasses that modify their items directly should call this method.
+	 */
+	protected void notifyItemsRemoved(int positionStart, int itemCount) {
+		notifyChange(CHANGE_REMOVED, positionStart, itemCount);
+	}
+
+	/**
+	 * Notifies the registered {@link OnItemsChangedListener}s that the itemCount items starting at positionStart have been replaced,
+	 * and calls {@link #notifyDataSetChanged()}. Subclasses that modify their items directly should call this method.
+	 */
+	protected void notifyItemsChanged(int positionStart, int itemCount) {
+		notifyChange(CHANGE_CHANGED, positionStart, itemCount);
+	}
+
+	/**
+	 * Notifies the registered {@link OnItemsChangedListener}s that the item at fromPosition has been moved to toPosition,
+	 * and calls {@link #notifyDataSetChanged()}. Subclasses that modify their items directly should call this method.
+	 */
+	protected void notifyItemMoved(int fromPosition, int toPosition) {
+		notifyChange(CHANGE_MOVED, fromPosition, toPosition);
+	}
+
+	/**
+	 * Called for every change, right after it has been applied to the items and before it is recorded or reported.
+	 */
+	void onChange(int type, int first, int second) {
+	}
+
+	private void notifyChange(int type, int first, int second) {
+		onChange(type, first, second);
+		if (mBatchDepth > 0) {
+			recordChange(type, first, second);
+			mBatchHasChanges = true;
+		} else {
+			dispatchChange(type, first, second);
+			notifyDataSetChanged();
+		}
+	}
+
+	/**
+	 * Records a change made during a batch, merging it into the previously recorded change when both describe one contiguous range.
+	 */
+	private void recordChange(int type, int first, int second) {
+		if (mBatchChangeCount > 0 && mBatchChanges[3 * (mBatchChangeCount - 1)] == type) {
+			int last = 3 * (mBatchChangeCount - 1);
+			int lastStart = mBatchChanges[last + 1];
+			int lastCount = mBatchChanges[last + 2];
+
+			switch (type) {
+			case CHANGE_INSERTED:
+				if (first >= lastStart && first <= lastStart + lastCount) {
+					mBatchChanges[last + 2] = lastCount + second;
+					return;
+				}
+				break;
+			case CHANGE_REMOVED:
+				if (first == lastStart) {
+					mBatchChanges[last + 2] = lastCount + second;
+					return;
+				} else if (first + second == lastStart) {
+					mBatchChanges[last + 1] = first;
+					mBatchChanges[last + 2] = lastCount + second;
+					return;
+				}
+				break;
+			case CHANGE_CHANGED:
+				if (first <= lastStart + lastCount && first + second >= lastStart) {
+					int start = Math.min(first, lastStart);
+					mBatchChanges[last + 1] = start;
+					mBatchChanges[last + 2] = Math.max(first + second, lastStart + lastCount) - start;
+					return;
+				}
+				break;
+			default:
+				break;
+			}
+		}
+
+		if (3 * (mBatchChangeCount + 1) > mBatchChanges.length) {
+			int[] batchChanges = new int[mBatchChanges.length * 2];
+			System.arraycopy(mBatchChanges, 0, batchChanges, 0, 3 * mBatchChangeCount);
+			mBatchChanges = batchChanges;
+		}
+		mBatchChanges[3 * mBatchChangeCount] = type;
+		mBatchChanges[3 * mBatchChangeCount + 1] = first;
+		mBatchChanges[3 * mBatchChangeCount + 2] = second;
+		mBatchChangeCount++;
+	}
+
+	private void dispatchChange(int type, int first, int second) {
+		for (int i = 0; i < mOnItemsChangedListeners.size(); i++) {
+			OnItemsChangedListener listener = mOnItemsChangedListeners.get(i);
+			switch (type) {
+			case CHANGE_INSERTED:
+				listener.onItemsInserted(first, second);
+				break;
+			case CHANGE_REMOVED:
+				listener.onItemsRemoved(first, second);
+				break;
+			case CHANGE_CHANGED:
+				listener.onItemsChanged(first, second);
+				break;
+			case CHANGE_MOVED:
+				listener.onItemMoved(first, second);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private BaseAdapter mDataSetChangedSlavedAdapter;
+
+	public void propagateNotifyDataSetChanged(BaseAdapter slavedAdapter) {
+		mDataSetChangedSlavedAdapter = slavedAdapter;
+	}
+
+	@Override
+	public void notifyDataSetChanged() {
+		super.notifyDataSetChanged();
+		if (mDataSetChangedSlavedAdapter != null) {
+			mDataSetChangedSlavedAdapter.notifyDataSetChanged();
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations;
+
+/**
+ * A listener which is notified of the exact changes made to the items of an {@link ObservableAdapter}.
+ * The callbacks are invoked in the order the changes were made, right before the adapter calls
+ * {@link android.widget.BaseAdapter#notifyDataSetChanged()}. Positions passed to a callback are
+ * relative to the item list after all previous callbacks have been applied.
+ */
+public interface OnItemsChangedListener {
+
+	/**
+	 * Called when itemCount items have been inserted at positionStart.
+	 */
+	public void onItemsInserted(int positionStart, int itemCount);
+
+	/**
+	 * Called when the itemCount items starting at positionStart have been removed.
+	 */
+	public void onItemsRemoved(int positionStart, int itemCount);
+
+	/**
+	 * Called when the itemCount items starting at positionStart have been replaced.
+	 */
+	public void onItemsChanged(int positionStart, int itemCount);
+
+	/**
+	 * Called when the item at fromPosition has been moved to toPosition.
+	 */
+	public void onItemMoved(int fromPosition, int toPosition);
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * An adapter which loads its items in pages of a fixed size from a {@link PageSource}, on a background {@link Executor}.
+ * Only a limited number of pages is kept in memory; the least recently used pages are evicted first.
+ * <p>
+ * {@link #getItem(int)} returns null for items which have not been loaded yet, and requests their page to be loaded.
+ * Implementations of {@link #getView(int, android.view.View, android.view.ViewGroup)} should show a placeholder for
+ * these items. When a page has been loaded, its items are reported as changed.
+ * Pages ahead of the scroll direction are loaded in advance, see {@link #setPrefetchDistance(int)}.
+ * <p>
+ * Call {@link #refresh()} when the contents of the PageSource have changed.
+ */
+public abstract class PagedArrayAdapter<T> extends ObservableAdapter {
+
+	private static final String TAG = "PagedArrayAdapter";
+	private static final int DEFAULTPREFETCHDISTANCE = 1;
+
+	private static Executor sPageExecutor;
+
+	private final PageSource<T> mPageSource;
+	private final int mPageSize;
+	private final int mMaxPages;
+	private final Executor mExecutor;
+	private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+	/**
+	 * The loaded pages, in access order.
+	 */
+	private final Map<Integer, List<T>> mPages;
+	private final Set<Integer> mLoadingPages = new HashSet<Integer>();
+
+	private int mCount;
+	private int mGeneration;
+	private int mPrefetchDistance = DEFAULTPREFETCHDISTANCE;
+	private int mLastPosition;
+
+	/**
+	 * Creates a new PagedArrayAdapter which loads its pages on a shared background thread.
+	 * @param pageSource the {@link PageSource} to load the items from.
+	 * @param pageSize the number of items in a page.
+	 * @param maxPages the maximum number of pages to keep in memory. Should be large enough to hold all visible items, plus the prefetched pages.
+	 */
+	public PagedArrayAdapter(PageSource<T> pageSource, int pageSize, int maxPages) {
+		this(pageSource, pageSize, maxPages, getPageExecutor());
+	}
+
+	/**
+	 * Creates a new PagedArrayAdapter which loads its pages on given {@link Executor}.
+	 * @param pageSource the {@link PageSource} to load the items from.
+	 * @param pageSize the number of items in a page.
+	 * @param maxPages the maximum number of pages to keep in memory. Should be large enough to hold all visible items, plus the prefetched pages.
+	 * @param executor the {@link Executor} to call the PageSource on.
+	 */
+	public PagedArrayAdapter(PageSource<T> pageSource, int pageSize, final int maxPages, Executor executor) {
+		if (pageSize < 1 || maxPages < 1) {
+			throw new IllegalArgumentException("pageSize and maxPages must be positive!");
+		}
+
+		mPageSource = pageSource;
+		mPageSize = pageSize;
+		mMaxPages = maxPages;
+		mExecutor = executor;
+		mPages = new LinkedHashMap<Integer, List<T>>(maxPages + 1, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+				return size() > mMaxPages;
+			}
+		};
+
+		refresh();
+	}
+
+	/**
+	 * Sets the number of pages to load ahead of the scroll direction. Defaults to 1.
+	 */
+	public void setPrefetchDistance(int prefetchDistance) {
+		mPrefetchDistance = prefetchDistance;
+	}
+
+	public int getPageSize() {
+		return mPageSize;
+	}
+
+	@Override
+	public int getCount() {
+		return mCount;
+	}
+
+	/**
+	 * Returns the item at given position, or null if it has not been loaded yet.
+	 * In the latter case, the page containing the item is loaded in the background.
+	 * <p>
+	 * Note that every call counts as an access: it requests the pages ahead of the scroll direction
+	 * to be loaded, and marks the page as most recently used, so that loading pages may evict others.
+	 * Use {@link #isLoaded(int)} to check whether an item is available without triggering loads.
+	 */
+	@Override
+	public T getItem(int position) {
+		int page = position / mPageSize;
+		List<T> items = mPages.get(page);
+
+		int direction = position > mLastPosition ? 1 : position < mLastPosition ? -1 : 0;
+		mLastPosition = position;
+
+		if (items == null) {
+			loadPage(page);
+		}
+		if (direction != 0) {
+			for (int i = 1; i <= mPrefetchDistance; i++) {
+				int prefetchPage = page + direction * i;
+				if (!mPages.containsKey(prefetchPage)) {
+					loadPage(prefetchPage);
+				}
+			}
+		}
+
+		int index = position - page * mPageSize;
+		return items != null && index < items.size() ? items.get(index) : null;
+	}
+
+	/**
+	 * Returns whether the item at given position has been loaded.
+	 */
+	public boolean isLoaded(int position) {
+		List<T> items = mPages.get(position / mPageSize);
+		return items != null && position % mPageSize < items.size();
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	/**
+	 * Discards all loaded pages, and reloads the item count and the visible pages from the {@link PageSource}.
+	 * If the item count cannot be loaded, the current count is kept.
+	 */
+	public void refresh() {
+		final int generation = ++mGeneration;
+		mPages.clear();
+		mLoadingPages.clear();
+
+		mExecutor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				int itemCount = -1;
+				try {
+					itemCount = mPageSource.getItemCount();
+				} catch (RuntimeException e) {
+					Log.w(TAG, "Could not load the item count", e);
+				}
+
+				final int count = itemCount;
+				mMainHandler.post(new Runnable() {
+
+					@Override
+					public void run() {
+						if (generation == mGeneration) {
+							/* Keeps the current count if the load failed, but still reports the discarded pages as changed */
+							setCount(count == -1 ? mCount : count);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	private void setCount(int count) {
+		int oldCount = mCount;
+		mCount = count;
+
+		beginBatch();
+		if (count > oldCount) {
+			notifyItemsInserted(oldCount, count - oldCount);
+		} else if (count < oldCount) {
+			notifyItemsRemoved(count, oldCount - count);
+		}
+		if (Math.min(count, oldCount) > 0) {
+			notifyItemsChanged(0, Math.min(count, oldCount));
+		}
+		commitBatch();
+	}
+
+	private void loadPage(final int page) {
+		if (page < 0 || page * mPageSize >= mCount || mLoadingPages.contains(page)) {
+			return;
+		}
+
+		mLoadingPages.add(page);
+		final int generation = mGeneration;
+		final int position = page * mPageSize;
+		final int count = Math.min(mPageSize, mCount - position);
+
+		mExecutor.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				List<T> items = null;
+				try {
+					items = mPageSource.loadPage(position, count);
+				} catch (RuntimeException e) {
+					Log.w(TAG, "Could not load the page at position " + position, e);
+				}
+
+				final List<T> loadedItems = items;
+				mMainHandler.post(new Runnable() {
+
+					@Override
+					public void run() {
+						onPageLoaded(generation, page, loadedItems);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Stores a loaded page. If the load failed, items is null, and the page is loaded again
+	 * the next time one of its items is requested.
+	 */
+	private void onPageLoaded(int generation, int page, List<T> items) {
+		if (generation != mGeneration) {
+			return;
+		}
+
+		mLoadingPages.remove(page);
+		if (items == null) {
+			return;
+		}
+
+		mPages.put(page, items);
+		int position = page * mPageSize;
+		int itemCount = Math.min(items.size(), mCount - position);
+		if (itemCount > 0) {
+			notifyItemsChanged(position, itemCount);
+		}
+	}
+
+	private static synchronized Executor getPageExecutor() {
+		if (sPageExecutor == null) {
+			sPageExecutor = Executors.newSingleThreadExecutor();
+		}
+		return sPageExecutor;
+	}
+
+	/**
+	 * Provides the items of a {@link PagedArrayAdapter}. Both methods are called on a background thread.
+	 */
+	public interface PageSource<T> {
+
+		/**
+		 * Returns the total number of items. May throw a RuntimeException if the count cannot be loaded.
+		 */
+		int getItemCount();
+
+		/**
+		 * Loads count items, starting at position. Returns null, or throws a RuntimeException, if the items could not be loaded.
+		 */
+		List<T> loadPage(int position, int count);
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations;
+
+import java.util.Arrays;
+
+import com.haarman.listviewanimations.view.DynamicListView;
+
+/**
+ * The storage and modification methods shared by {@link IntArrayAdapter}, {@link LongArrayAdapter}
+ * and {@link FloatArrayAdapter}. The items are kept in a growable primitive array of type A, which
+ * is only touched through {@link System#arraycopy(Object, int, Object, int, int)} here; the
+ * subclasses provide the methods that read or write single items.
+ */
+abstract class PrimitiveArrayAdapter<A> extends ObservableAdapter implements DynamicListView.Swappable, DynamicListView.Movable {
+
+	private static final int MINCAPACITY = 8;
+
+	protected A mItems;
+	protected int mSize;
+
+	/**
+	 * A single element array, to hold an item while it is moved.
+	 */
+	private final A mTemp;
+
+	PrimitiveArrayAdapter(A items) {
+		mTemp = newArray(1);
+		if (items == null) {
+			mItems = newArray(MINCAPACITY);
+		} else {
+			int length = length(items);
+			mItems = newArray(Math.max(length, MINCAPACITY));
+			System.arraycopy(items, 0, mItems, 0, length);
+			mSize = length;
+		}
+	}
+
+	/**
+	 * Returns a new array of given length.
+	 */
+	abstract A newArray(int length);
+
+	abstract int length(A items);
+
+	/**
+	 * Sorts given array in place.
+	 */
+	abstract void sort(A items);
+
+	/**
+	 * Returns whether the item at given position is contained in given sorted array.
+	 */
+	abstract boolean isItemIn(A sortedItems, int position);
+
+	@Override
+	public int getCount() {
+		return mSize;
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	/**
+	 * Appends all of the elements to the end of the array, in the order that
+	 * they are specified.
+	 */
+	public void addAll(A items) {
+		addAll(mSize, items);
+	}
+
+	/**
+	 * Inserts all of the elements into the array, starting at the specified
+	 * position.
+	 */
+	public void addAll(int position, A items) {
+		int length = length(items);
+		checkPosition(position, mSize + 1);
+		if (length == 0) {
+			return;
+		}
+		makeRoom(position, length);
+		System.arraycopy(items, 0, mItems, position, length);
+		notifyItemsInserted(position, length);
+	}
+
+	/**
+	 * Shifts the items from given position onwards by count places, growing the array if needed.
+	 */
+	void makeRoom(int position, int count) {
+		ensureCapacity(mSize + count);
+		System.arraycopy(mItems, position, mItems, position + count, mSize - position);
+		mSize += count;
+	}
+
+	/**
+	 * Removes all of the elements from the array.
+	 */
+	public void clear() {
+		int size = mSize;
+		mSize = 0;
+		notifyItemsRemoved(0, size);
+	}
+
+	/**
+	 * Removes the element at the specified position in the array
+	 */
+	public void remove(int position) {
+		checkPosition(position, mSize);
+		System.arraycopy(mItems, position + 1, mItems, position, mSize - position - 1);
+		mSize--;
+		notifyItemsRemoved(position, 1);
+	}
+
+	/**
+	 * Removes all elements at the specified positions in the array. The positions
+	 * do not need to be sorted, and duplicate positions are ignored. The array is
+	 * compacted in a single pass, copying the runs of remaining items at once.
+	 */
+	public void removePositions(int... positions) {
+		if (positions.length == 0) {
+			return;
+		}
+
+		int[] sortedPositions = positions.clone();
+		Arrays.sort(sortedPositions);
+		if (sortedPositions[0] < 0 || sortedPositions[sortedPositions.length - 1] >= mSize) {
+			throw new IndexOutOfBoundsException("Invalid positions " + Arrays.toString(positions) + ", size is " + mSize);
+		}
+
+		beginBatch();
+		int next = 0;
+		int write = sortedPositions[0];
+		while (next < sortedPositions.length) {
+			int removed = sortedPositions[next];
+			notifyItemsRemoved(write, 1);
+			while (next < sortedPositions.length && sortedPositions[next] == removed) {
+				next++;
+			}
+
+			int runLength = (next < sortedPositions.length ? sortedPositions[next] : mSize) - removed - 1;
+			System.arraycopy(mItems, removed + 1, mItems, write, runLength);
+			write += runLength;
+		}
+		mSize = write;
+		commitBatch();
+	}
+
+	/**
+	 * Removes all of the array's elements that are also contained in the
+	 * specified array
+	 */
+	public void removeAll(A items) {
+		removeItems(items, true);
+	}
+
+	/**
+	 * Retains only the elements in the array that are contained in the specified
+	 * array
+	 */
+	public void retainAll(A items) {
+		removeItems(items, false);
+	}
+
+	/**
+	 * Removes the elements which are (or are not) contained in given array, compacting the array in a single pass.
+	 * The runs of remaining items are copied at once.
+	 */
+	private void removeItems(A items, boolean removeContained) {
+		int length = length(items);
+		A sortedItems = newArray(length);
+		System.arraycopy(items, 0, sortedItems, 0, length);
+		sort(sortedItems);
+
+		beginBatch();
+		int write = 0;
+		int runStart = 0;
+		for (int read = 0; read < mSize; read++) {
+			if (isItemIn(sortedItems, read) == removeContained) {
+				System.arraycopy(mItems, runStart, mItems, write, read - runStart);
+				write += read - runStart;
+				runStart = read + 1;
+				notifyItemsRemoved(write, 1);
+			}
+		}
+		System.arraycopy(mItems, runStart, mItems, write, mSize - runStart);
+		mSize = write + mSize - runStart;
+		commitBatch();
+	}
+
+	/**
+	 * Returns a copy of the elements in this adapter.
+	 */
+	public A toArray() {
+		A result = newArray(mSize);
+		System.arraycopy(mItems, 0, result, 0, mSize);
+		return result;
+	}
+
+	@Override
+	public void swapItems(int positionOne, int positionTwo) {
+		checkPosition(positionOne, mSize);
+		checkPosition(positionTwo, mSize);
+		System.arraycopy(mItems, positionOne, mTemp, 0, 1);
+		System.arraycopy(mItems, positionTwo, mItems, positionOne, 1);
+		System.arraycopy(mTemp, 0, mItems, positionTwo, 1);
+		beginBatch();
+		notifyItemsChanged(positionOne, 1);
+		notifyItemsChanged(positionTwo, 1);
+		commitBatch();
+	}
+
+	@Override
+	public void moveItem(int fromPosition, int toPosition) {
+		checkPosition(fromPosition, mSize);
+		checkPosition(toPosition, mSize);
+		if (fromPosition == toPosition) {
+			return;
+		}
+
+		System.arraycopy(mItems, fromPosition, mTemp, 0, 1);
+		if (fromPosition < toPosition) {
+			System.arraycopy(mItems, fromPosition + 1, mItems, fromPosition, toPosition - fromPosition);
+		} else {
+			System.arraycopy(mItems, toPosition, mItems, toPosition + 1, fromPosition - toPosition);
+		}
+		System.arraycopy(mTemp, 0, mItems, toPosition, 1);
+		notifyItemMoved(fromPosition, toPosition);
+	}
+
+	private void ensureCapacity(int capacity) {
+		int length = length(mItems);
+		if (capacity > length) {
+			A items = newArray(Math.max(capacity, length * 3 / 2 + 1));
+			System.arraycopy(mItems, 0, items, 0, mSize);
+			mItems = items;
+		}
+	}
+
+	static void checkPosition(int position, int limit) {
+		if (position < 0 || position >= limit) {
+			throw new IndexOutOfBoundsException("Invalid position " + position + ", limit is " + limit);
+		}
+	}
+}
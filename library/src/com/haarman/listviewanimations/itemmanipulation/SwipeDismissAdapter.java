@@ -18,8 +18,8 @@ package com.haarman.listviewanimations.itemmanipulation;
 import android.widget.AbsListView;
 import android.widget.BaseAdapter;
 
-import com.haarman.listviewanimations.ArrayAdapter;
 import com.haarman.listviewanimations.BaseAdapterDecorator;
+import com.haarman.listviewanimations.ObservableAdapter;
 
 /**
  * Adds an option to swipe items in a ListView away. This does nothing more than
@@ -55,11 +55,19 @@ public class SwipeDismissAdapter extends BaseAdapterDecorator {
 	@Override
 	public void setAbsListView(AbsListView listView) {
 		super.setAbsListView(listView);
-		if (mDecoratedBaseAdapter instanceof ArrayAdapter<?>) {
+		if (mDecoratedBaseAdapter instanceof ObservableAdapter) {
 			// fix #35 dirty trick !
-			// if ArrayAdapter we assume that items manipulation will come from it
-			((ArrayAdapter<?>)mDecoratedBaseAdapter).propagateNotifyDataSetChanged(this);
+			// if ObservableAdapter we assume that items manipulation will come from it
+			((ObservableAdapter) mDecoratedBaseAdapter).propagateNotifyDataSetChanged(this);
 		}
+		if (mSwipeDismissListViewTouchListener != null) {
+			mSwipeDismissListViewTouchListener.detach();
+			mSwipeDismissListViewTouchListener = null;
+		}
+		if (listView == null) {
+			return;
+		}
+
 		mSwipeDismissListViewTouchListener = createListViewTouchListener(listView);
 		mSwipeDismissListViewTouchListener.setIsParentHorizontalScrollContainer(isParentHorizontalScrollContainer());
 		mSwipeDismissListViewTouchListener.setTouchChild(getTouchChild());
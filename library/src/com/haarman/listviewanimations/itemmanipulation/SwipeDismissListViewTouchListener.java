@@ -53,6 +53,8 @@ import com.nineoldandroids.view.ViewHelper;
 @SuppressLint("Recycle")
 public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 
+	private static final String TAG = "SwipeDismissListViewTouchListener";
+
 	// Cached ViewConfiguration and system-wide constant values
 	private int mSlop;
 	private int mMinFlingVelocity;
@@ -76,9 +78,21 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 	 */
 	private boolean mSwipeInitiated;
 	private VelocityTracker mVelocityTracker;
+	private boolean mTracking;
 	private boolean mPaused;
 	private PendingDismissData mCurrentDismissData;
 
+	/**
+	 * A PendingDismissData which was used for a touch that did not lead to a dismiss, to be reused for the next touch.
+	 */
+	private PendingDismissData mSpareDismissData;
+
+	// Scratch objects, reused for every touch event
+	private final Rect mRect = new Rect();
+	private final int[] mListViewCoords = new int[2];
+
+	private boolean mLoggingEnabled;
+
 	private int mVirtualListCount = -1;
 
 	private boolean mDisallowSwipe;
@@ -116,6 +130,55 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 		mDisallowSwipe = false;
 	}
 
+	/**
+	 * Enables or disables swiping. Disabling ends the current touch, and releases its {@link VelocityTracker}.
+	 */
+	public void setEnabled(boolean enabled) {
+		mPaused = !enabled;
+		if (!enabled) {
+			cancelTracking();
+		}
+	}
+
+	/**
+	 * Ends the current touch, and releases its {@link VelocityTracker}. Called when this
+	 * listener is replaced or removed from its AbsListView.
+	 */
+	void detach() {
+		cancelTracking();
+	}
+
+	private void cancelTracking() {
+		if (mSwiping && mCurrentDismissData != null) {
+			animate(mCurrentDismissData.view).translationX(0).alpha(1).setDuration(mAnimationTime).setListener(null);
+		}
+		if (mCurrentDismissData != null) {
+			mCurrentDismissData.view = null;
+			mSpareDismissData = mCurrentDismissData;
+			mCurrentDismissData = null;
+		}
+		mTracking = false;
+		mSwiping = false;
+
+		if (mVelocityTracker != null) {
+			mVelocityTracker.recycle();
+			mVelocityTracker = null;
+		}
+	}
+
+	/**
+	 * Sets whether the progress of swipes is logged. Defaults to false.
+	 */
+	public void setLoggingEnabled(boolean loggingEnabled) {
+		mLoggingEnabled = loggingEnabled;
+	}
+
+	private void log(String message) {
+		if (mLoggingEnabled) {
+			Log.d(TAG, message);
+		}
+	}
+
 	@Override
 	public boolean onTouch(View view, MotionEvent motionEvent) {
 		if (mVirtualListCount == -1) {
@@ -160,17 +223,33 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 		return new PendingDismissData(position, view);
 	}
 
+	/**
+	 * Prepares the PendingDismissData of a previous touch that did not lead to a dismiss to be
+	 * reused for a new touch. By default, only PendingDismissData created by this class are reused;
+	 * subclasses that create their own should override this method to reset their state as well.
+	 * @return false if data cannot be reused, in which case {@link #createPendingDismissData(int, View)} is called.
+	 */
+	protected boolean resetPendingDismissData(PendingDismissData data, int position, View view) {
+		if (data.getClass() != PendingDismissData.class) {
+			return false;
+		}
+		data.position = position;
+		data.view = view;
+		return true;
+	}
+
 	private boolean handleDownEvent(MotionEvent motionEvent) {
 		if (mPaused) {
 			return false;
 		}
 
 		mSwipeInitiated = false;
+		mTracking = false;
 
 		// Find the child view that was touched (perform a hit test)
-		Rect rect = new Rect();
+		Rect rect = mRect;
 		int childCount = mListView.getChildCount();
-		int[] listViewCoords = new int[2];
+		int[] listViewCoords = mListViewCoords;
 		mListView.getLocationOnScreen(listViewCoords);
 		int x = (int) motionEvent.getRawX() - listViewCoords[0];
 		int y = (int) motionEvent.getRawY() - listViewCoords[1];
@@ -184,16 +263,13 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 		}
 
 		if (downView != null) {
-			Log.d("SwipeDismissListViewTouchListener", "hit child !");
+			log("hit child !");
 			mDownX = motionEvent.getRawX();
 			mDownY = motionEvent.getRawY();
 			int downPosition = mListView.getPositionForView(downView);
 
-			mCurrentDismissData = createPendingDismissData(downPosition, downView);
-
-			if (mPendingDismisses.contains(mCurrentDismissData) || downPosition >= mVirtualListCount) {
+			if (isPendingDismiss(downPosition) || downPosition >= mVirtualListCount) {
 				// Cancel, we're already processing this position
-				mCurrentDismissData = null;
 				return false;
 			} else {
 				mTouchChildTouched = !mIsParentHorizontalScrollContainer && (mResIdOfTouchChild == 0);
@@ -203,8 +279,8 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 
 					final View childView = downView.findViewById(mResIdOfTouchChild);
 					if (childView != null) {
-						final Rect childRect = getChildViewRect(mListView, childView);
-						if (childRect.contains((int) mDownX, (int) mDownY)) {
+						getChildViewRect(mListView, childView, rect);
+						if (rect.contains((int) mDownX, (int) mDownY)) {
 							mTouchChildTouched = true;
 							mListView.requestDisallowInterceptTouchEvent(true);
 						}
@@ -218,38 +294,66 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 					mListView.requestDisallowInterceptTouchEvent(true);
 				}
 
-				mVelocityTracker = VelocityTracker.obtain();
+				mCurrentDismissData = obtainPendingDismissData(downPosition, downView);
+
+				if (mVelocityTracker == null) {
+					mVelocityTracker = VelocityTracker.obtain();
+				} else {
+					mVelocityTracker.clear();
+				}
 				mVelocityTracker.addMovement(motionEvent);
+				mTracking = true;
 			}
 		}
 		return true;
 	}
 
-	private Rect getChildViewRect(View parentView, View childView) {
-		final Rect childRect = new Rect(childView.getLeft(), childView.getTop(), childView.getRight(), childView.getBottom());
-		if (parentView == childView) {
-			return childRect;
+	private boolean isPendingDismiss(int position) {
+		for (int i = 0; i < mPendingDismisses.size(); i++) {
+			if (mPendingDismisses.get(i).position == position) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the PendingDismissData left by the previous touch if it can be reused, or a new one otherwise.
+	 */
+	private PendingDismissData obtainPendingDismissData(int position, View view) {
+		PendingDismissData data = mSpareDismissData;
+		mSpareDismissData = null;
+		if (data != null && resetPendingDismissData(data, position, view)) {
+			return data;
+		}
+		return createPendingDismissData(position, view);
+	}
 
+	/**
+	 * Writes the bounds of childView, relative to parentView, into outRect.
+	 */
+	private void getChildViewRect(View parentView, View childView, Rect outRect) {
+		outRect.set(childView.getLeft(), childView.getTop(), childView.getRight(), childView.getBottom());
+		if (parentView == childView) {
+			return;
 		}
 
 		ViewGroup parent;
 		while ((parent = (ViewGroup) childView.getParent()) != parentView) {
-			childRect.offset(parent.getLeft(), parent.getTop());
+			outRect.offset(parent.getLeft(), parent.getTop());
 			childView = parent;
 		}
-
-		return childRect;
 	}
 
 	private boolean handleMoveEvent(MotionEvent motionEvent) {
-		if (mPaused || (mVelocityTracker == null)) {
+		if (mPaused || !mTracking) {
 			return false;
 		}
 
 		mVelocityTracker.addMovement(motionEvent);
 		float deltaX = motionEvent.getRawX() - mDownX;
 		float deltaY = motionEvent.getRawY() - mDownY;
-		if (mTouchChildTouched && !mDisallowSwipe && Math.abs(deltaX) > mSlop && Math.abs(deltaX) > Math.abs(deltaY)) {
+		if (!mSwiping && mTouchChildTouched && !mDisallowSwipe && Math.abs(deltaX) > mSlop && Math.abs(deltaX) > Math.abs(deltaY)) {
 			mSwiping = true;
 			mListView.requestDisallowInterceptTouchEvent(true);
 
@@ -257,11 +361,12 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 			MotionEvent cancelEvent = MotionEvent.obtain(motionEvent);
 			cancelEvent.setAction(MotionEvent.ACTION_CANCEL | (motionEvent.getActionIndex() << MotionEvent.ACTION_POINTER_INDEX_SHIFT));
 			mListView.onTouchEvent(cancelEvent);
+			cancelEvent.recycle();
 		}
 
 		if (mSwiping) {
 			if (!mSwipeInitiated) {
-				Log.d("SwipeDismissListViewTouchListener", "swipe/begin");
+				log("swipe/begin");
 			}
 			mSwipeInitiated = true;
 			ViewHelper.setTranslationX(mCurrentDismissData.view, deltaX);
@@ -272,7 +377,7 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 	}
 
 	private boolean handleUpEvent(MotionEvent motionEvent) {
-		if (mVelocityTracker == null) {
+		if (!mTracking) {
 			return false;
 		}
 
@@ -293,7 +398,7 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 
 		if (mSwiping) {
 			if (dismiss) {
-				Log.d("SwipeDismissListViewTouchListener", "swipe/confimed");
+				log("swipe/confimed");
 				// mDownView gets null'd before animation ends
 				final PendingDismissData pendingDismissData = mCurrentDismissData;
 				++mDismissAnimationRefCount;
@@ -308,16 +413,20 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 
 				mVirtualListCount--;
 				mPendingDismisses.add(mCurrentDismissData);
+				mCurrentDismissData = null;
 			} else {
-				Log.d("SwipeDismissListViewTouchListener", "swipe/cancelled");
+				log("swipe/cancelled");
 				// cancel
 				animate(mCurrentDismissData.view).translationX(0).alpha(1).setDuration(mAnimationTime).setListener(null);
 			}
 		}
 
-		mVelocityTracker.recycle();
-		mVelocityTracker = null;
+		mTracking = false;
 		mDownX = 0;
+		if (mCurrentDismissData != null) {
+			mCurrentDismissData.view = null;
+			mSpareDismissData = mCurrentDismissData;
+		}
 		mCurrentDismissData = null;
 		mSwiping = false;
 		return false;
@@ -372,7 +481,7 @@ public class SwipeDismissListViewTouchListener implements SwipeOnTouchListener {
 		// dismiss callback when all dismissed list item animations have
 		// completed.
 
-		Log.d("SwipeDismissListViewTouchListener", "performDismiss");
+		log("performDismiss");
 
 		final ViewGroup.LayoutParams lp = data.view.getLayoutParams();
 		final int originalHeight = data.view.getHeight();
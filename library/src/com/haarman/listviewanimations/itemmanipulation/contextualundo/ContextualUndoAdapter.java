@@ -75,6 +75,7 @@ public class ContextualUndoAdapter extends BaseAdapterDecorator implements Conte
 	private CountDownFormatter mCountDownFormatter;
 
 	private ContextualUndoListViewTouchListener mContextualUndoListViewTouchListener;
+	private AbsListView.RecyclerListener mRecyclerListener;
 
 	/**
 	 * Create a new ContextualUndoAdapter based on given parameters.
@@ -164,7 +165,16 @@ public class ContextualUndoAdapter extends BaseAdapterDecorator implements Conte
 		mContextualUndoListViewTouchListener.setTouchChild(getTouchChild());
 		listView.setOnTouchListener(mContextualUndoListViewTouchListener);
 		listView.setOnScrollListener(mContextualUndoListViewTouchListener.makeScrollListener());
-		listView.setRecyclerListener(new RecycleViewListener());
+		mRecyclerListener = new RecycleViewListener(super.getRecyclerListener());
+		listView.setRecyclerListener(mRecyclerListener);
+	}
+
+	@Override
+	public AbsListView.RecyclerListener getRecyclerListener() {
+		if (mRecyclerListener != null) {
+			return mRecyclerListener;
+		}
+		return super.getRecyclerListener();
 	}
 
 	@Override
@@ -418,12 +428,22 @@ public class ContextualUndoAdapter extends BaseAdapterDecorator implements Conte
 	}
 
 	private class RecycleViewListener implements AbsListView.RecyclerListener {
+
+		private final AbsListView.RecyclerListener mDecoratedRecyclerListener;
+
+		public RecycleViewListener(AbsListView.RecyclerListener decoratedRecyclerListener) {
+			mDecoratedRecyclerListener = decoratedRecyclerListener;
+		}
+
 		@Override
 		public void onMovedToScrapHeap(View view) {
 			Animator animator = mActiveAnimators.get(view);
 			if (animator != null) {
 				animator.cancel();
 			}
+			if (mDecoratedRecyclerListener != null) {
+				mDecoratedRecyclerListener.onMovedToScrapHeap(view);
+			}
 		}
 	}
 }
\ No newline at end of file
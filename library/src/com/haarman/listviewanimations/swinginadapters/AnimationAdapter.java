@@ -15,16 +15,25 @@
  */
 package com.haarman.listviewanimations.swinginadapters;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import android.annotation.SuppressLint;
 import android.os.Build;
-import android.util.SparseArray;
+import android.os.SystemClock;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.BaseAdapter;
 import android.widget.GridView;
+import android.widget.ListView;
 
 import com.haarman.listviewanimations.BaseAdapterDecorator;
+import com.haarman.listviewanimations.ObservableAdapter;
+import com.haarman.listviewanimations.OnItemsChangedListener;
 import com.nineoldandroids.animation.Animator;
+import com.nineoldandroids.animation.AnimatorListenerAdapter;
 import com.nineoldandroids.animation.AnimatorSet;
 import com.nineoldandroids.animation.ObjectAnimator;
 import com.nineoldandroids.view.ViewHelper;
@@ -33,19 +42,67 @@ import com.nineoldandroids.view.ViewHelper;
  * A {@link BaseAdapterDecorator} class which applies multiple {@link Animator}s at once to
  * views when they are first shown. The Animators applied include the animations
  * specified in {@link #getAnimators(ViewGroup, View)}, plus an alpha transition.
+ * <p>
+ * Once attached with {@link #setAbsListView(AbsListView)}, the AnimationAdapter takes over the
+ * {@link AbsListView.RecyclerListener} of the AbsListView, to end the animations of recycled Views.
+ * Set any RecyclerListener of your own with {@link #setRecyclerListener(AbsListView.RecyclerListener)}
+ * instead of on the AbsListView, so that it is still called.
  */
 public abstract class AnimationAdapter extends BaseAdapterDecorator {
 
 	protected static final long DEFAULTANIMATIONDELAYMILLIS = 100;
 	protected static final long DEFAULTANIMATIONDURATIONMILLIS = 300;
 	private static final long INITIALDELAYMILLIS = 150;
+	private static final float DEFAULTSHORTENANIMATIONVELOCITY = 15;
+	private static final float DEFAULTSKIPANIMATIONVELOCITY = 30;
+	private static final long VELOCITYSAMPLEMILLIS = 100;
+	private static final int MINPOOLEDANIMATORS = 8;
+
+	private static final Animator[] EMPTY_ANIMATORS = new Animator[0];
 
-	private SparseArray<Animator> mAnimators;
+	/**
+	 * The Views which have been animated and not recycled since, and their Animators. Kept in arrays
+	 * instead of a Map, so that animating a recycled View does not allocate an entry.
+	 */
+	private View[] mAnimatedViews = new View[MINPOOLEDANIMATORS];
+	private Animator[] mAnimators = new Animator[MINPOOLEDANIMATORS];
+	private int mAnimatedViewCount;
+	/**
+	 * The pooled AnimatorSets, in access order. Only the Views the AbsListView can still reuse are kept:
+	 * Views moved to the scrap heap are touched by the RecyclerListener, so the Views the AbsListView has
+	 * discarded are the least recently used ones, and are evicted once the pool exceeds mMaxPooledAnimators.
+	 */
+	private Map<View, AnimatorSet> mPooledAnimators;
+	private int mMaxPooledAnimators = MINPOOLEDANIMATORS;
+	private boolean mIsAnimatorPoolingEnabled;
+	private int mCreatedAnimatorCount;
+	private int mReusedAnimatorCount;
 	private long mAnimationStartMillis;
 	private int mFirstAnimatedPosition;
 	private int mLastAnimatedPosition;
 	private boolean mHasParentAnimationAdapter;
 	private boolean mShouldAnimate = true;
+	private AbsListView.RecyclerListener mRecyclerListener;
+	private AbsListView.RecyclerListener mAppRecyclerListener;
+	private OnItemsChangedListener mOnItemsChangedListener;
+
+	/**
+	 * Positions of inserted items that should animate even though they are not beyond mLastAnimatedPosition.
+	 */
+	private int[] mInsertedPositions = new int[8];
+	private int mInsertedPositionCount;
+
+	private boolean mIsFlingAwareAnimationEnabled;
+	private float mShortenAnimationVelocity = DEFAULTSHORTENANIMATIONVELOCITY;
+	private float mSkipAnimationVelocity = DEFAULTSKIPANIMATIONVELOCITY;
+	private float mItemsPerSecond;
+	private long mVelocitySampleStartMillis;
+	private int mVelocitySampleItemCount;
+	private int mSkippedAnimationCount;
+
+	private AnimationScheduler mAnimationScheduler;
+
+	private boolean mIsHardwareLayerEnabled;
 
 	private long mInitialDelayMillis = INITIALDELAYMILLIS;
 	private long mAnimationDelayMillis = DEFAULTANIMATIONDELAYMILLIS;
@@ -53,7 +110,15 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 
 	public AnimationAdapter(BaseAdapter baseAdapter) {
 		super(baseAdapter);
-		mAnimators = new SparseArray<Animator>();
+		mPooledAnimators = new LinkedHashMap<View, AnimatorSet>(MINPOOLEDANIMATORS, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<View, AnimatorSet> eldest) {
+				return size() > mMaxPooledAnimators;
+			}
+		};
 
 		mAnimationStartMillis = -1;
 		mLastAnimatedPosition = -1;
@@ -63,15 +128,65 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 		}
 	}
 
+	/**
+	 * Sets the {@link AbsListView} this adapter is shown in. Pass null when the adapter is
+	 * no longer used, to stop listening to the changes of a decorated {@link ObservableAdapter}.
+	 */
+	@Override
+	public void setAbsListView(AbsListView listView) {
+		if (listView != getAbsListView()) {
+			/* The Views of another AbsListView are never reused */
+			clearAnimators();
+			mPooledAnimators.clear();
+		}
+		super.setAbsListView(listView);
+		if (listView == null) {
+			if (mOnItemsChangedListener != null) {
+				((ObservableAdapter) getRootAdapter()).removeOnItemsChangedListener(mOnItemsChangedListener);
+				mOnItemsChangedListener = null;
+			}
+		} else if (!mHasParentAnimationAdapter) {
+			mRecyclerListener = new RecycleViewListener(super.getRecyclerListener());
+			listView.setRecyclerListener(mRecyclerListener);
+
+			if (mOnItemsChangedListener == null && getRootAdapter() instanceof ObservableAdapter) {
+				mOnItemsChangedListener = new ItemsChangedListener();
+				((ObservableAdapter) getRootAdapter()).addOnItemsChangedListener(mOnItemsChangedListener);
+			}
+		}
+	}
+
+	/**
+	 * Sets a {@link AbsListView.RecyclerListener} to be called for every View moved to the scrap heap.
+	 * Use this instead of {@link AbsListView#setRecyclerListener(AbsListView.RecyclerListener)}, since
+	 * the AnimationAdapter replaces the RecyclerListener of its AbsListView.
+	 */
+	public void setRecyclerListener(AbsListView.RecyclerListener recyclerListener) {
+		mAppRecyclerListener = recyclerListener;
+	}
+
+	@Override
+	public AbsListView.RecyclerListener getRecyclerListener() {
+		if (mRecyclerListener != null) {
+			return mRecyclerListener;
+		}
+		return super.getRecyclerListener();
+	}
+
 	/**
 	 * Call this method to reset animation status on all views. The next time
 	 * {@link #notifyDataSetChanged()} is called on the base adapter, all views will
 	 * animate again. Will also call {@link #setShouldAnimate(boolean)} with a value of true.
 	 */
 	public void reset() {
-		mAnimators.clear();
+		if (mAnimationScheduler != null) {
+			mAnimationScheduler.clear();
+		}
+		clearAnimators();
+		mPooledAnimators.clear();
 		mFirstAnimatedPosition = 0;
 		mLastAnimatedPosition = -1;
+		mInsertedPositionCount = 0;
 		mAnimationStartMillis = -1;
 		mShouldAnimate = true;
 
@@ -122,7 +237,7 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 			}
 
 			if (convertView != null) {
-				cancelExistingAnimation(position, convertView);
+				cancelExistingAnimation(convertView);
 			}
 		}
 
@@ -134,47 +249,172 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 		return itemView;
 	}
 
-	private void cancelExistingAnimation(int position, View convertView) {
-		int hashCode = convertView.hashCode();
-		Animator animator = mAnimators.get(hashCode);
+	private void cancelExistingAnimation(View convertView) {
+		Animator animator = removeAnimator(convertView);
 		if (animator != null) {
+			if (mAnimationScheduler != null && mAnimationScheduler.cancel(convertView) != null) {
+				/* The Animator has not been started yet, start it to be able to end it */
+				animator.setStartDelay(0);
+				animator.start();
+			}
 			animator.end();
-			mAnimators.remove(hashCode);
 		}
 	}
 
+	/**
+	 * Removes and returns the Animator of given View, or returns null if it has none.
+	 */
+	private Animator removeAnimator(View view) {
+		for (int i = 0; i < mAnimatedViewCount; i++) {
+			if (mAnimatedViews[i] == view) {
+				Animator animator = mAnimators[i];
+				mAnimatedViewCount--;
+				mAnimatedViews[i] = mAnimatedViews[mAnimatedViewCount];
+				mAnimators[i] = mAnimators[mAnimatedViewCount];
+				mAnimatedViews[mAnimatedViewCount] = null;
+				mAnimators[mAnimatedViewCount] = null;
+				return animator;
+			}
+		}
+		return null;
+	}
+
+	private void addAnimator(View view, Animator animator) {
+		if (mAnimatedViewCount == mAnimatedViews.length) {
+			View[] animatedViews = new View[mAnimatedViewCount * 2];
+			Animator[] animators = new Animator[mAnimatedViewCount * 2];
+			System.arraycopy(mAnimatedViews, 0, animatedViews, 0, mAnimatedViewCount);
+			System.arraycopy(mAnimators, 0, animators, 0, mAnimatedViewCount);
+			mAnimatedViews = animatedViews;
+			mAnimators = animators;
+		}
+		mAnimatedViews[mAnimatedViewCount] = view;
+		mAnimators[mAnimatedViewCount] = animator;
+		mAnimatedViewCount++;
+	}
+
+	private void clearAnimators() {
+		Arrays.fill(mAnimatedViews, 0, mAnimatedViewCount, null);
+		Arrays.fill(mAnimators, 0, mAnimatedViewCount, null);
+		mAnimatedViewCount = 0;
+	}
+
 	private void animateViewIfNecessary(int position, View view, ViewGroup parent) {
 		boolean isMeasuringGridViewItem = parent.getHeight() == 0;
 
-		if (position > mLastAnimatedPosition && mShouldAnimate && !isMeasuringGridViewItem) {
-			animateView(position, parent, view);
-			mLastAnimatedPosition = position;
+		if (mShouldAnimate && !isMeasuringGridViewItem && (position > mLastAnimatedPosition || removeInsertedPosition(position))) {
+			boolean isFlinging = false;
+			if (mIsFlingAwareAnimationEnabled) {
+				updateScrollVelocity();
+				isFlinging = isFirstScreenAnimated() && mItemsPerSecond >= mShortenAnimationVelocity;
+			}
+
+			if (isFlinging && mItemsPerSecond >= mSkipAnimationVelocity) {
+				mSkippedAnimationCount++;
+			} else {
+				animateView(position, parent, view, isFlinging);
+			}
+			mLastAnimatedPosition = Math.max(mLastAnimatedPosition, position);
+		}
+	}
+
+	private boolean removeInsertedPosition(int position) {
+		for (int i = 0; i < mInsertedPositionCount; i++) {
+			if (mInsertedPositions[i] == position) {
+				mInsertedPositions[i] = mInsertedPositions[--mInsertedPositionCount];
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void addInsertedPosition(int position) {
+		if (mInsertedPositionCount == mInsertedPositions.length) {
+			int[] insertedPositions = new int[mInsertedPositions.length * 2];
+			System.arraycopy(mInsertedPositions, 0, insertedPositions, 0, mInsertedPositionCount);
+			mInsertedPositions = insertedPositions;
 		}
+		mInsertedPositions[mInsertedPositionCount++] = position;
 	}
 
-	private void animateView(int position, ViewGroup parent, View view) {
+	/**
+	 * Measures how many new items per second are shown, as an indication of the
+	 * scroll velocity of the {@link AbsListView}.
+	 */
+	private void updateScrollVelocity() {
+		long now = SystemClock.uptimeMillis();
+		long elapsed = now - mVelocitySampleStartMillis;
+		if (elapsed >= VELOCITYSAMPLEMILLIS) {
+			mItemsPerSecond = mVelocitySampleItemCount * 1000f / elapsed;
+			mVelocitySampleStartMillis = now;
+			mVelocitySampleItemCount = 0;
+		}
+		mVelocitySampleItemCount++;
+	}
+
+	private boolean isFirstScreenAnimated() {
+		int numberOfItems = getAbsListView().getLastVisiblePosition() - getAbsListView().getFirstVisiblePosition();
+		return numberOfItems + 1 < mLastAnimatedPosition;
+	}
+
+	private void animateView(int position, ViewGroup parent, View view, boolean isFlinging) {
 		if (mAnimationStartMillis == -1) {
-			mAnimationStartMillis = System.currentTimeMillis();
+			mAnimationStartMillis = SystemClock.uptimeMillis();
 		}
 
 		ViewHelper.setAlpha(view, 0);
 
+		AnimatorSet set = null;
+		if (mIsAnimatorPoolingEnabled) {
+			/* The on screen Views and the scrapped Views are at most twice the number of children */
+			mMaxPooledAnimators = Math.max(mMaxPooledAnimators, 2 * (parent.getChildCount() + 1));
+			set = mPooledAnimators.get(view);
+		}
+		if (set == null) {
+			set = createAnimatorSet(parent, view);
+			if (mIsAnimatorPoolingEnabled) {
+				mPooledAnimators.put(view, set);
+			}
+		} else {
+			mReusedAnimatorCount++;
+		}
+
+		long delay;
+		if (isFlinging) {
+			delay = 0;
+			set.setDuration(getAnimationDurationMillis() / 2);
+		} else {
+			delay = calculateAnimationDelay();
+			set.setDuration(getAnimationDurationMillis());
+		}
+
+		if (mAnimationScheduler != null) {
+			mAnimationScheduler.schedule(view, set, delay);
+		} else {
+			set.setStartDelay(delay);
+			set.start();
+		}
+
+		addAnimator(view, set);
+	}
+
+	private AnimatorSet createAnimatorSet(ViewGroup parent, View view) {
 		Animator[] childAnimators;
 		if (mDecoratedBaseAdapter instanceof AnimationAdapter) {
 			childAnimators = ((AnimationAdapter) mDecoratedBaseAdapter).getAnimators(parent, view);
 		} else {
-			childAnimators = new Animator[0];
+			childAnimators = EMPTY_ANIMATORS;
 		}
 		Animator[] animators = getAnimators(parent, view);
 		Animator alphaAnimator = ObjectAnimator.ofFloat(view, "alpha", 0, 1);
 
 		AnimatorSet set = new AnimatorSet();
 		set.playTogether(concatAnimators(childAnimators, animators, alphaAnimator));
-		set.setStartDelay(calculateAnimationDelay());
-		set.setDuration(getAnimationDurationMillis());
-		set.start();
-
-		mAnimators.put(view.hashCode(), set);
+		if (mIsHardwareLayerEnabled && Build.VERSION.SDK_INT >= 11) {
+			set.addListener(new HardwareLayerAnimatorListener(view));
+		}
+		mCreatedAnimatorCount++;
+		return set;
 	}
 
 	private Animator[] concatAnimators(Animator[] childAnimators, Animator[] animators, Animator alphaAnimator) {
@@ -197,8 +437,7 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 	@SuppressLint("NewApi")
 	private long calculateAnimationDelay() {
 		long delay;
-		int numberOfItems = getAbsListView().getLastVisiblePosition() - getAbsListView().getFirstVisiblePosition();
-		if (numberOfItems + 1 < mLastAnimatedPosition) {
+		if (isFirstScreenAnimated()) {
 			delay = getAnimationDelayMillis();
 
 			if (getAbsListView() instanceof GridView && Build.VERSION.SDK_INT >= 11) {
@@ -206,7 +445,7 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 			}
 		} else {
 			long delaySinceStart = (mLastAnimatedPosition - mFirstAnimatedPosition + 1) * getAnimationDelayMillis();
-			delay = mAnimationStartMillis + getInitialDelayMillis() + delaySinceStart - System.currentTimeMillis();
+			delay = mAnimationStartMillis + getInitialDelayMillis() + delaySinceStart - SystemClock.uptimeMillis();
 		}
 		return Math.max(0, delay);
 	}
@@ -221,6 +460,126 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 		mHasParentAnimationAdapter = hasParentAnimationAdapter;
 	}
 
+	/**
+	 * Set whether the {@link AnimatorSet} built for a {@link View} should be kept and
+	 * restarted when that View is recycled, instead of building a new one through
+	 * {@link #getAnimators(ViewGroup, View)} each time. Once every recycled View has
+	 * been animated once, scrolling no longer allocates Animators.
+	 * <p>
+	 * Only enable this when the Animators returned by {@link #getAnimators(ViewGroup, View)}
+	 * do not depend on state that changes between calls, such as the size of the parent.
+	 * Call {@link #reset()} to discard the pooled Animators when that state changes.
+	 * @param enabled true to reuse Animators for recycled Views.
+	 */
+	public void setAnimatorPoolingEnabled(boolean enabled) {
+		mIsAnimatorPoolingEnabled = enabled;
+		if (!enabled) {
+			mPooledAnimators.clear();
+		}
+	}
+
+	public boolean isAnimatorPoolingEnabled() {
+		return mIsAnimatorPoolingEnabled;
+	}
+
+	/**
+	 * Get the number of {@link AnimatorSet}s that have been built by this AnimationAdapter.
+	 * With Animator pooling enabled, this value stops growing once all recycled Views have been animated.
+	 */
+	public int getCreatedAnimatorCount() {
+		return mCreatedAnimatorCount;
+	}
+
+	/**
+	 * Get the number of times a pooled {@link AnimatorSet} has been restarted instead of built.
+	 */
+	public int getReusedAnimatorCount() {
+		return mReusedAnimatorCount;
+	}
+
+	/**
+	 * Set whether {@link View}s should be rendered into a hardware layer while they are animated.
+	 * This avoids redrawing complex item Views on every frame of the animation. The original layer
+	 * type of the View is restored when the animation ends or is cancelled. Has no effect below API level 11.
+	 * @param enabled true to use a hardware layer during animations.
+	 */
+	public void setHardwareLayerEnabled(boolean enabled) {
+		mIsHardwareLayerEnabled = enabled;
+		mPooledAnimators.clear();
+	}
+
+	public boolean isHardwareLayerEnabled() {
+		return mIsHardwareLayerEnabled;
+	}
+
+	/**
+	 * Set the maximum number of item animations that may start in a single frame. When set, animations
+	 * are started on frame boundaries by a central scheduler instead of through their own start delay,
+	 * and animations that are due while the budget of the current frame is spent start in the next frame.
+	 * @param maxAnimationsPerFrame the maximum number of animations to start per frame, or 0 for no limit.
+	 */
+	public void setMaxAnimationsPerFrame(int maxAnimationsPerFrame) {
+		if (maxAnimationsPerFrame > 0) {
+			if (mAnimationScheduler == null) {
+				mAnimationScheduler = new AnimationScheduler(maxAnimationsPerFrame);
+			} else {
+				mAnimationScheduler.setMaxAnimationsPerFrame(maxAnimationsPerFrame);
+			}
+		} else if (mAnimationScheduler != null) {
+			mAnimationScheduler.clear();
+			mAnimationScheduler = null;
+		}
+	}
+
+	/**
+	 * Set whether animations should adapt to the scroll velocity of the {@link AbsListView}.
+	 * When enabled, items that are shown while scrolling faster than the value set with
+	 * {@link #setShortenAnimationVelocity(float)} animate without delay in half the time, and items that
+	 * are shown while scrolling faster than the value set with {@link #setSkipAnimationVelocity(float)}
+	 * are not animated at all. The cascaded animations resume once scrolling slows down.
+	 * @param enabled true to adapt animations to the scroll velocity.
+	 */
+	public void setFlingAwareAnimationEnabled(boolean enabled) {
+		mIsFlingAwareAnimationEnabled = enabled;
+		mItemsPerSecond = 0;
+		mVelocitySampleItemCount = 0;
+	}
+
+	public boolean isFlingAwareAnimationEnabled() {
+		return mIsFlingAwareAnimationEnabled;
+	}
+
+	/**
+	 * Set the scroll velocity, in items per second, above which animations are shortened. Defaults to {@value #DEFAULTSHORTENANIMATIONVELOCITY}.
+	 * @param itemsPerSecond the number of new items shown per second.
+	 */
+	public void setShortenAnimationVelocity(float itemsPerSecond) {
+		mShortenAnimationVelocity = itemsPerSecond;
+	}
+
+	public float getShortenAnimationVelocity() {
+		return mShortenAnimationVelocity;
+	}
+
+	/**
+	 * Set the scroll velocity, in items per second, above which animations are skipped. Defaults to {@value #DEFAULTSKIPANIMATIONVELOCITY}.
+	 * @param itemsPerSecond the number of new items shown per second.
+	 */
+	public void setSkipAnimationVelocity(float itemsPerSecond) {
+		mSkipAnimationVelocity = itemsPerSecond;
+	}
+
+	public float getSkipAnimationVelocity() {
+		return mSkipAnimationVelocity;
+	}
+
+	/**
+	 * Get the number of animations that have been skipped because the {@link AbsListView} was scrolled too fast.
+	 */
+	public int getSkippedAnimationCount() {
+		return mSkippedAnimationCount;
+	}
+
 	/**
 	 * Get the delay in milliseconds before the first animation should start. Defaults to {@value #INITIALDELAYMILLIS}.
 	 */
@@ -276,4 +635,126 @@ public abstract class AnimationAdapter extends BaseAdapterDecorator {
 	 *            The view that will be animated, as retrieved by getView()
 	 */
 	public abstract Animator[] getAnimators(ViewGroup parent, View view);
+
+	/**
+	 * Ends the animation of {@link View}s that are moved to the scrap heap, so that no state is kept
+	 * for Views that are not on screen.
+	 */
+	private class RecycleViewListener implements AbsListView.RecyclerListener {
+
+		private final AbsListView.RecyclerListener mDecoratedRecyclerListener;
+
+		public RecycleViewListener(AbsListView.RecyclerListener decoratedRecyclerListener) {
+			mDecoratedRecyclerListener = decoratedRecyclerListener;
+		}
+
+		@Override
+		public void onMovedToScrapHeap(View view) {
+			cancelExistingAnimation(view);
+			/* Marks the pooled AnimatorSet of the View as recently used */
+			mPooledAnimators.get(view);
+			if (mDecoratedRecyclerListener != null) {
+				mDecoratedRecyclerListener.onMovedToScrapHeap(view);
+			}
+			if (mAppRecyclerListener != null) {
+				mAppRecyclerListener.onMovedToScrapHeap(view);
+			}
+		}
+	}
+
+	/**
+	 * Promotes a {@link View} to a hardware layer for the duration of an animation.
+	 */
+	@SuppressLint("NewApi")
+	private static class HardwareLayerAnimatorListener extends AnimatorListenerAdapter {
+
+		private final View mView;
+		private int mOriginalLayerType;
+
+		public HardwareLayerAnimatorListener(View view) {
+			mView = view;
+		}
+
+		@Override
+		public void onAnimationStart(Animator animation) {
+			mOriginalLayerType = mView.getLayerType();
+			mView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+		}
+
+		@Override
+		public void onAnimationEnd(Animator animation) {
+			mView.setLayerType(mOriginalLayerType, null);
+		}
+	}
+
+	/**
+	 * Keeps the animation state in line with changes to the items of a decorated {@link ObservableAdapter}:
+	 * items that are inserted on screen are animated, while items that did not change are not animated again.
+	 */
+	private class ItemsChangedListener implements OnItemsChangedListener {
+
+		@Override
+		public void onItemsInserted(int positionStart, int itemCount) {
+			for (int i = 0; i < mInsertedPositionCount; i++) {
+				if (mInsertedPositions[i] >= positionStart) {
+					mInsertedPositions[i] += itemCount;
+				}
+			}
+
+			if (positionStart <= mLastAnimatedPosition) {
+				mLastAnimatedPosition += itemCount;
+
+				/* Only animate the inserted items that will be shown on screen */
+				int nrHeaders = 0;
+				if (getAbsListView() instanceof ListView) {
+					nrHeaders = ((ListView) getAbsListView()).getHeaderViewsCount();
+				}
+				int firstVisiblePosition = getAbsListView().getFirstVisiblePosition() - nrHeaders;
+				int lastVisiblePosition = getAbsListView().getLastVisiblePosition() - nrHeaders;
+				int from = Math.max(positionStart, firstVisiblePosition);
+				int to = Math.min(positionStart + itemCount - 1, lastVisiblePosition);
+				for (int position = from; position <= to; position++) {
+					addInsertedPosition(position);
+				}
+			}
+		}
+
+		@Override
+		public void onItemsRemoved(int positionStart, int itemCount) {
+			int i = 0;
+			while (i < mInsertedPositionCount) {
+				int position = mInsertedPositions[i];
+				if (position >= positionStart + itemCount) {
+					mInsertedPositions[i] = position - itemCount;
+					i++;
+				} else if (position >= positionStart) {
+					mInsertedPositions[i] = mInsertedPositions[--mInsertedPositionCount];
+				} else {
+					i++;
+				}
+			}
+
+			if (positionStart <= mLastAnimatedPosition) {
+				mLastAnimatedPosition -= Math.min(itemCount, mLastAnimatedPosition - positionStart + 1);
+			}
+		}
+
+		@Override
+		public void onItemsChanged(int positionStart, int itemCount) {
+		}
+
+		@Override
+		public void onItemMoved(int fromPosition, int toPosition) {
+			for (int i = 0; i < mInsertedPositionCount; i++) {
+				int position = mInsertedPositions[i];
+				if (position == fromPosition) {
+					mInsertedPositions[i] = toPosition;
+				} else if (fromPosition < position && position <= toPosition) {
+					mInsertedPositions[i] = position - 1;
+				} else if (toPosition <= position && position < fromPosition) {
+					mInsertedPositions[i] = position + 1;
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.swinginadapters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+
+import com.nineoldandroids.animation.Animator;
+
+/**
+ * Starts the entry {@link Animator}s of an {@link AnimationAdapter} on frame boundaries.
+ * Instead of starting every Animator with its own start delay, Animators are queued with
+ * the time at which they are due, and each frame at most a fixed number of due Animators
+ * is started. This prevents a burst of new items, such as the first screen of a list,
+ * from starting all their animations in the same frame.
+ * <p>
+ * All times are taken from {@link SystemClock#uptimeMillis()}.
+ * On API level 16 and up frames are driven by the {@link Choreographer}, on older
+ * versions by a {@link Handler}.
+ */
+class AnimationScheduler {
+
+	private static final long FRAMEMILLIS = 16;
+
+	private final List<PendingAnimation> mPendingAnimations = new ArrayList<PendingAnimation>();
+	private final List<PendingAnimation> mRecycledPendingAnimations = new ArrayList<PendingAnimation>();
+
+	private final FrameScheduler mFrameScheduler;
+	private int mMaxAnimationsPerFrame;
+	private long mScheduledFrameMillis = Long.MAX_VALUE;
+
+	AnimationScheduler(int maxAnimationsPerFrame) {
+		mMaxAnimationsPerFrame = maxAnimationsPerFrame;
+		if (Build.VERSION.SDK_INT >= 16) {
+			mFrameScheduler = new ChoreographerFrameScheduler(this);
+		} else {
+			mFrameScheduler = new HandlerFrameScheduler(this);
+		}
+	}
+
+	void setMaxAnimationsPerFrame(int maxAnimationsPerFrame) {
+		mMaxAnimationsPerFrame = maxAnimationsPerFrame;
+	}
+
+	/**
+	 * Queue given {@link Animator} to be started after given delay.
+	 */
+	void schedule(View view, Animator animator, long delayMillis) {
+		PendingAnimation pendingAnimation = mRecycledPendingAnimations.isEmpty() ? new PendingAnimation() : mRecycledPendingAnimations.remove(mRecycledPendingAnimations.size() - 1);
+		pendingAnimation.view = view;
+		pendingAnimation.animator = animator;
+		pendingAnimation.dueMillis = SystemClock.uptimeMillis() + delayMillis;
+		mPendingAnimations.add(pendingAnimation);
+
+		scheduleFrame(delayMillis);
+	}
+
+	/**
+	 * Remove the queued {@link Animator} for given {@link View}, if any.
+	 * @return the Animator that was removed, or null if there was no queued Animator for the View.
+	 */
+	Animator cancel(View view) {
+		for (int i = 0; i < mPendingAnimations.size(); i++) {
+			PendingAnimation pendingAnimation = mPendingAnimations.get(i);
+			if (pendingAnimation.view == view) {
+				Animator animator = pendingAnimation.animator;
+				recycle(mPendingAnimations.remove(i));
+				return animator;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remove all queued {@link Animator}s, and end them right away, so that their views
+	 * are left in their final state instead of in their initial state.
+	 */
+	void clear() {
+		for (int i = mPendingAnimations.size() - 1; i >= 0; i--) {
+			PendingAnimation pendingAnimation = mPendingAnimations.remove(i);
+			Animator animator = pendingAnimation.animator;
+			recycle(pendingAnimation);
+
+			/* An Animator which has not been started cannot be ended */
+			animator.setStartDelay(0);
+			animator.start();
+			animator.end();
+		}
+		if (mScheduledFrameMillis != Long.MAX_VALUE) {
+			mFrameScheduler.cancelFrame();
+			mScheduledFrameMillis = Long.MAX_VALUE;
+		}
+	}
+
+	private void recycle(PendingAnimation pendingAnimation) {
+		pendingAnimation.view = null;
+		pendingAnimation.animator = null;
+		mRecycledPendingAnimations.add(pendingAnimation);
+	}
+
+	private void scheduleFrame(long delayMillis) {
+		long frameMillis = SystemClock.uptimeMillis() + delayMillis;
+		if (frameMillis < mScheduledFrameMillis) {
+			if (mScheduledFrameMillis != Long.MAX_VALUE) {
+				mFrameScheduler.cancelFrame();
+			}
+			mScheduledFrameMillis = frameMillis;
+			mFrameScheduler.scheduleFrame(delayMillis);
+		}
+	}
+
+	private void doFrame() {
+		mScheduledFrameMillis = Long.MAX_VALUE;
+
+		long now = SystemClock.uptimeMillis();
+		long nextDueMillis = Long.MAX_VALUE;
+		int startedAnimations = 0;
+
+		int i = 0;
+		while (i < mPendingAnimations.size()) {
+			PendingAnimation pendingAnimation = mPendingAnimations.get(i);
+			if (pendingAnimation.dueMillis <= now && startedAnimations < mMaxAnimationsPerFrame) {
+				Animator animator = pendingAnimation.animator;
+				recycle(mPendingAnimations.remove(i));
+
+				animator.setStartDelay(0);
+				animator.start();
+				startedAnimations++;
+			} else {
+				nextDueMillis = Math.min(nextDueMillis, pendingAnimation.dueMillis);
+				i++;
+			}
+		}
+
+		if (!mPendingAnimations.isEmpty()) {
+			/* Animations left over because of the per frame limit start in the very next frame */
+			scheduleFrame(Math.max(0, nextDueMillis - now));
+		}
+	}
+
+	private static class PendingAnimation {
+		View view;
+		Animator animator;
+		long dueMillis;
+	}
+
+	private interface FrameScheduler {
+		void scheduleFrame(long delayMillis);
+
+		void cancelFrame();
+	}
+
+	@TargetApi(16)
+	private static class ChoreographerFrameScheduler implements FrameScheduler, Choreographer.FrameCallback {
+
+		private final AnimationScheduler mAnimationScheduler;
+		private final Choreographer mChoreographer;
+
+		ChoreographerFrameScheduler(AnimationScheduler animationScheduler) {
+			mAnimationScheduler = animationScheduler;
+			mChoreographer = Choreographer.getInstance();
+		}
+
+		@Override
+		public void scheduleFrame(long delayMillis) {
+			if (delayMillis == 0) {
+				mChoreographer.postFrameCallback(this);
+			} else {
+				mChoreographer.postFrameCallbackDelayed(this, delayMillis);
+			}
+		}
+
+		@Override
+		public void cancelFrame() {
+			mChoreographer.removeFrameCallback(this);
+		}
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			mAnimationScheduler.doFrame();
+		}
+	}
+
+	private static class HandlerFrameScheduler implements FrameScheduler, Runnable {
+
+		private final AnimationScheduler mAnimationScheduler;
+		private final Handler mHandler;
+
+		HandlerFrameScheduler(AnimationScheduler animationScheduler) {
+			mAnimationScheduler = animationScheduler;
+			mHandler = new Handler();
+		}
+
+		@Override
+		public void scheduleFrame(long delayMillis) {
+			mHandler.postDelayed(this, Math.max(FRAMEMILLIS, delayMillis));
+		}
+
+		@Override
+		public void cancelFrame() {
+			mHandler.removeCallbacks(this);
+		}
+
+		@Override
+		public void run() {
+			mAnimationScheduler.doFrame();
+		}
+	}
+}
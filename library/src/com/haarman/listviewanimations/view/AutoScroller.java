@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.view;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+import android.widget.AbsListView;
+
+/**
+ * Scrolls an {@link AbsListView} once per frame while a dragged hover cell is inside
+ * one of its edge zones. The speed grows with how deep the hover cell is inside the
+ * edge zone, and with how long it has been there, up to a maximum speed.
+ */
+class AutoScroller implements Runnable {
+
+	private static final long FRAMEMILLIS = 16;
+	private static final long MAXFRAMEMILLIS = 50;
+
+	/**
+	 * The fraction of the speed used when the hover cell just entered an edge zone.
+	 */
+	private static final float MINRAMP = 0.25f;
+	private static final long RAMPMILLIS = 1500;
+
+	private static final int DEFAULTEDGESIZEDP = 48;
+	private static final int DEFAULTMAXSPEEDDP = 2500;
+
+	private final AbsListView mAbsListView;
+	private final Callback mCallback;
+
+	private int mEdgeSize;
+	private int mMaxSpeed;
+
+	private boolean mRunning;
+	private int mDirection;
+	private float mDepth;
+	private long mStartMillis;
+	private long mLastFrameMillis;
+	private float mRemainder;
+
+	AutoScroller(AbsListView absListView, Callback callback) {
+		mAbsListView = absListView;
+		mCallback = callback;
+
+		float density = absListView.getResources().getDisplayMetrics().density;
+		mEdgeSize = (int) (DEFAULTEDGESIZEDP * density);
+		mMaxSpeed = (int) (DEFAULTMAXSPEEDDP * density);
+	}
+
+	void setEdgeSize(int edgeSize) {
+		mEdgeSize = Math.max(1, edgeSize);
+	}
+
+	void setMaxSpeed(int maxSpeed) {
+		mMaxSpeed = Math.max(0, maxSpeed);
+	}
+
+	/**
+	 * Updates the scroll direction and speed for a hover cell with given top and bottom,
+	 * and starts or stops scrolling accordingly.
+	 * @return true if the list is scrolling.
+	 */
+	boolean update(int hoverTop, int hoverBottom) {
+		int height = mAbsListView.getHeight();
+		int direction = 0;
+		float depth = 0;
+
+		if (hoverTop < mEdgeSize && mCallback.canScroll(-1)) {
+			direction = -1;
+			depth = (mEdgeSize - hoverTop) / (float) mEdgeSize;
+		} else if (hoverBottom > height - mEdgeSize && mCallback.canScroll(1)) {
+			direction = 1;
+			depth = (hoverBottom - height + mEdgeSize) / (float) mEdgeSize;
+		}
+
+		if (direction == 0 || mMaxSpeed == 0) {
+			stop();
+			return false;
+		}
+
+		if (!mRunning || direction != mDirection) {
+			mRunning = true;
+			mStartMillis = SystemClock.uptimeMillis();
+			mLastFrameMillis = mStartMillis;
+			mRemainder = 0;
+			mAbsListView.removeCallbacks(this);
+			postFrame();
+		}
+		mDirection = direction;
+		mDepth = Math.min(1, depth);
+		return true;
+	}
+
+	void stop() {
+		if (mRunning) {
+			mRunning = false;
+			mDirection = 0;
+			mAbsListView.removeCallbacks(this);
+		}
+	}
+
+	boolean isRunning() {
+		return mRunning;
+	}
+
+	@Override
+	public void run() {
+		if (!mRunning) {
+			return;
+		}
+
+		/* Lets the callback handle the scroll step of the previous frame. */
+		mCallback.onAutoScroll();
+		if (!mRunning || !mCallback.canScroll(mDirection)) {
+			stop();
+			return;
+		}
+
+		long now = SystemClock.uptimeMillis();
+		long frameMillis = Math.min(MAXFRAMEMILLIS, now - mLastFrameMillis);
+		mLastFrameMillis = now;
+
+		float ramp = MINRAMP + (1 - MINRAMP) * Math.min(1, (now - mStartMillis) / (float) RAMPMILLIS);
+		float distance = mMaxSpeed * mDepth * ramp * frameMillis / 1000f + mRemainder;
+		int scrollBy = (int) distance;
+		mRemainder = distance - scrollBy;
+
+		if (scrollBy > 0) {
+			mAbsListView.smoothScrollBy(mDirection * scrollBy, 0);
+		}
+		postFrame();
+	}
+
+	private void postFrame() {
+		if (Build.VERSION.SDK_INT >= 16) {
+			postOnAnimation();
+		} else {
+			mAbsListView.postDelayed(this, FRAMEMILLIS);
+		}
+	}
+
+	@TargetApi(16)
+	private void postOnAnimation() {
+		mAbsListView.postOnAnimation(this);
+	}
+
+	/**
+	 * Connects the AutoScroller to the list being dragged in.
+	 */
+	interface Callback {
+
+		/**
+		 * Returns whether the list can scroll up (direction -1) or down (direction 1).
+		 */
+		boolean canScroll(int direction);
+
+		/**
+		 * Called on every frame while scrolling, after the list has scrolled, to update the dragged cells.
+		 */
+		void onAutoScroll();
+	}
+}
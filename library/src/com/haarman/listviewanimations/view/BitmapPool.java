@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+/**
+ * A small pool of {@link Bitmap}s, bucketed by size and configuration, so that the bitmap of a
+ * hover cell can be reused for the next hover cell of the same size.
+ */
+class BitmapPool {
+
+	private final List<Bitmap> mBitmaps = new ArrayList<Bitmap>();
+	private final int mMaxSize;
+
+	private int mHitCount;
+	private int mMissCount;
+
+	BitmapPool(int maxSize) {
+		mMaxSize = maxSize;
+	}
+
+	/**
+	 * Returns a cleared Bitmap of given size and configuration, from the pool if possible.
+	 */
+	Bitmap acquire(int width, int height, Bitmap.Config config) {
+		for (int i = 0; i < mBitmaps.size(); i++) {
+			Bitmap bitmap = mBitmaps.get(i);
+			if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+				mBitmaps.remove(i);
+				mHitCount++;
+				bitmap.eraseColor(Color.TRANSPARENT);
+				return bitmap;
+			}
+		}
+
+		mMissCount++;
+		return Bitmap.createBitmap(width, height, config);
+	}
+
+	/**
+	 * Returns given Bitmap to the pool. If the pool is full, the smallest Bitmap is recycled.
+	 */
+	void release(Bitmap bitmap) {
+		if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || mBitmaps.contains(bitmap)) {
+			return;
+		}
+
+		mBitmaps.add(bitmap);
+		if (mBitmaps.size() > mMaxSize) {
+			int smallest = 0;
+			for (int i = 1; i < mBitmaps.size(); i++) {
+				if (getByteCount(mBitmaps.get(i)) < getByteCount(mBitmaps.get(smallest))) {
+					smallest = i;
+				}
+			}
+			mBitmaps.remove(smallest).recycle();
+		}
+	}
+
+	/**
+	 * Recycles all pooled Bitmaps.
+	 */
+	void clear() {
+		for (Bitmap bitmap : mBitmaps) {
+			bitmap.recycle();
+		}
+		mBitmaps.clear();
+	}
+
+	int getHitCount() {
+		return mHitCount;
+	}
+
+	int getMissCount() {
+		return mMissCount;
+	}
+
+	private static int getByteCount(Bitmap bitmap) {
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.view;
+
+import java.util.Arrays;
+
+import android.widget.AbsListView;
+import android.widget.ListAdapter;
+
+/**
+ * Maps the item ids of the visible children of an {@link AbsListView} to their positions,
+ * using an open addressing hash table of primitives. The table is built on the first lookup
+ * after it has been invalidated, or after the range of visible positions has changed.
+ */
+class ChildIdCache {
+
+	private final AbsListView mAbsListView;
+
+	private long[] mIds = new long[32];
+	private int[] mPositions = new int[32];
+	private boolean[] mUsed = new boolean[32];
+
+	private boolean mValid;
+	private int mFirstPosition;
+	private int mChildCount;
+
+	ChildIdCache(AbsListView absListView) {
+		mAbsListView = absListView;
+	}
+
+	/**
+	 * Discards the table. Call when the children have been laid out again, or the data set has changed.
+	 */
+	void invalidate() {
+		mValid = false;
+	}
+
+	/**
+	 * Returns the position of the visible child with given item id, or {@link AbsListView#INVALID_POSITION}.
+	 */
+	int getPosition(long id) {
+		ensureValid();
+
+		int mask = mUsed.length - 1;
+		int index = hash(id) & mask;
+		while (mUsed[index]) {
+			if (mIds[index] == id) {
+				return mPositions[index];
+			}
+			index = (index + 1) & mask;
+		}
+		return AbsListView.INVALID_POSITION;
+	}
+
+	private void ensureValid() {
+		int firstPosition = mAbsListView.getFirstVisiblePosition();
+		int childCount = mAbsListView.getChildCount();
+		if (mValid && firstPosition == mFirstPosition && childCount == mChildCount) {
+			return;
+		}
+
+		mValid = true;
+		mFirstPosition = firstPosition;
+		mChildCount = childCount;
+
+		int capacity = mUsed.length;
+		while (capacity < childCount * 2) {
+			capacity *= 2;
+		}
+		if (capacity != mUsed.length) {
+			mIds = new long[capacity];
+			mPositions = new int[capacity];
+			mUsed = new boolean[capacity];
+		} else {
+			Arrays.fill(mUsed, false);
+		}
+
+		ListAdapter adapter = mAbsListView.getAdapter();
+		if (adapter == null) {
+			return;
+		}
+
+		int mask = capacity - 1;
+		int count = Math.min(childCount, adapter.getCount() - firstPosition);
+		for (int i = 0; i < count; i++) {
+			long id = adapter.getItemId(firstPosition + i);
+			int index = hash(id) & mask;
+			while (mUsed[index] && mIds[index] != id) {
+				index = (index + 1) & mask;
+			}
+			if (!mUsed[index]) {
+				mUsed[index] = true;
+				mIds[index] = id;
+				mPositions[index] = firstPosition + i;
+			}
+		}
+	}
+
+	private static int hash(long id) {
+		int hash = (int) (id ^ (id >>> 32));
+		return hash ^ (hash >>> 16);
+	}
+}
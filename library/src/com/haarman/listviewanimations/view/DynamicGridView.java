@@ -0,0 +1,506 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.view;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.AbsListView;
+import android.widget.AdapterView;
+import android.widget.GridView;
+
+import com.haarman.listviewanimations.view.DynamicListView.Movable;
+import com.haarman.listviewanimations.view.DynamicListView.OnHoverCellListener;
+import com.haarman.listviewanimations.view.DynamicListView.Swappable;
+import com.nineoldandroids.animation.Animator;
+import com.nineoldandroids.animation.AnimatorListenerAdapter;
+import com.nineoldandroids.view.ViewHelper;
+
+/**
+ * The DynamicGridView is an extension of {@link GridView} that supports cell dragging.
+ * </p>
+ * Make sure your adapter implements {@link Movable} or {@link Swappable}, as every
+ * {@link com.haarman.listviewanimations.BaseAdapterDecorator} does.
+ * </p>
+ * When an item experiences a long press event, the contents of its current visible
+ * state are captured as a bitmap and its visibility is set to INVISIBLE. This hover cell
+ * then follows the finger. The data set is not changed while dragging. Instead, the cells
+ * between the original and the current position of the hover cell are translated to the
+ * neighbouring cell to make room for it. When the hover cell is released, it animates into
+ * its new cell, and the item is moved there with {@link Movable#moveItem(int, int)}, or
+ * with a series of {@link Swappable#swapItems(int, int)} calls.
+ * </p>
+ * When the hover cell is dragged into the top or bottom edge of the GridView, the GridView
+ * scrolls on its own so as to reveal additional content.
+ */
+public class DynamicGridView extends GridView {
+
+	private static final int MOVE_DURATION = 150;
+
+	private int mDownX = -1;
+	private int mDownY = -1;
+	private int mActivePointerId = INVALID_POINTER_ID;
+	private static final int INVALID_POINTER_ID = -1;
+
+	private boolean mCellIsMobile;
+	private boolean mIsWaitingForScrollFinish;
+	private int mScrollState = OnScrollListener.SCROLL_STATE_IDLE;
+
+	private int mMobilePosition = INVALID_POSITION;
+	private int mTargetPosition = INVALID_POSITION;
+
+	private final HoverCell mHoverCell = new HoverCell(this, new AnimatorListenerAdapter() {
+		@Override
+		public void onAnimationEnd(Animator animation) {
+			onHoverCellSettled();
+		}
+	});
+	private OnHoverCellListener mOnHoverCellListener;
+
+	private final ShiftAnimator mShiftAnimator = new ShiftAnimator(MOVE_DURATION);
+	private final ItemMover mItemMover = new ItemMover();
+
+	private RecyclerListener mRecyclerListener;
+
+	/**
+	 * Resets the translation and visibility of views which scroll off while dragging,
+	 * before they are reused for other items.
+	 */
+	private final RecyclerListener mDragRecyclerListener = new RecyclerListener() {
+		@Override
+		public void onMovedToScrapHeap(View view) {
+			if (mCellIsMobile || mMobilePosition != INVALID_POSITION) {
+				mShiftAnimator.cancel(view);
+				ViewHelper.setTranslationX(view, 0);
+				ViewHelper.setTranslationY(view, 0);
+				view.setVisibility(VISIBLE);
+			}
+			if (mRecyclerListener != null) {
+				mRecyclerListener.onMovedToScrapHeap(view);
+			}
+		}
+	};
+
+	private AutoScroller mAutoScroller;
+
+	public DynamicGridView(Context context) {
+		super(context);
+		init();
+	}
+
+	public DynamicGridView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+		init();
+	}
+
+	public DynamicGridView(Context context, AttributeSet attrs, int defStyle) {
+		super(context, attrs, defStyle);
+		init();
+	}
+
+	private void init() {
+		setOnItemLongClickListener(mOnItemLongClickListener);
+		setOnScrollListener(mScrollListener);
+		mAutoScroller = new AutoScroller(this, mAutoScrollerCallback);
+		super.setRecyclerListener(mDragRecyclerListener);
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		mAutoScroller.stop();
+		mShiftAnimator.clear();
+		mHoverCell.clear();
+	}
+
+	@Override
+	public void setRecyclerListener(RecyclerListener listener) {
+		mRecyclerListener = listener;
+	}
+
+	public void setOnHoverCellListener(OnHoverCellListener onHoverCellListener) {
+		mOnHoverCellListener = onHoverCellListener;
+	}
+
+	/**
+	 * Sets whether the bitmap of the hover cell may use the RGB_565 configuration,
+	 * which takes half the memory of ARGB_8888, when the dragged view is opaque.
+	 * Defaults to false.
+	 */
+	public void setHoverCellRgb565Enabled(boolean hoverCellRgb565Enabled) {
+		mHoverCell.setRgb565Enabled(hoverCellRgb565Enabled);
+	}
+
+	/**
+	 * Sets the maximum speed at which the grid scrolls while an item is dragged into
+	 * its top or bottom edge zone. Defaults to 2500dp per second.
+	 * @param pixelsPerSecond the maximum speed in pixels per second, or 0 to disable scrolling.
+	 */
+	public void setMaxAutoScrollSpeed(int pixelsPerSecond) {
+		mAutoScroller.setMaxSpeed(pixelsPerSecond);
+	}
+
+	/**
+	 * Sets the height of the zones at the top and bottom of the grid in which a dragged
+	 * item makes the grid scroll. Defaults to 48dp.
+	 * @param pixels the height of the edge zones in pixels.
+	 */
+	public void setAutoScrollEdgeSize(int pixels) {
+		mAutoScroller.setEdgeSize(pixels);
+	}
+
+	private OnItemLongClickListener mOnItemLongClickListener = new OnItemLongClickListener() {
+		public boolean onItemLongClick(AdapterView<?> arg0, View arg1, int pos, long id) {
+			return makeCellMobile(pos);
+		}
+	};
+
+	private boolean makeCellMobile(int position) {
+		View selectedView = getChildAt(position - getFirstVisiblePosition());
+		if (selectedView == null || !ItemMover.canMove(getAdapter())) {
+			return false;
+		}
+
+		mMobilePosition = position;
+		mTargetPosition = position;
+
+		mHoverCell.capture(selectedView, mOnHoverCellListener);
+		selectedView.setVisibility(INVISIBLE);
+
+		mCellIsMobile = true;
+		getParent().requestDisallowInterceptTouchEvent(true);
+		return true;
+	}
+
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		super.dispatchDraw(canvas);
+		mHoverCell.draw(canvas);
+	}
+
+	@Override
+	public boolean onTouchEvent(MotionEvent event) {
+		switch (event.getAction() & MotionEvent.ACTION_MASK) {
+		case MotionEvent.ACTION_DOWN:
+			mDownX = (int) event.getX();
+			mDownY = (int) event.getY();
+			mActivePointerId = event.getPointerId(0);
+			break;
+		case MotionEvent.ACTION_MOVE:
+			if (!mCellIsMobile || mActivePointerId == INVALID_POINTER_ID) {
+				break;
+			}
+
+			int pointerIndex = event.findPointerIndex(mActivePointerId);
+			int deltaX = (int) event.getX(pointerIndex) - mDownX;
+			int deltaY = (int) event.getY(pointerIndex) - mDownY;
+
+			Rect originalBounds = mHoverCell.getOriginalBounds();
+			mHoverCell.offsetTo(originalBounds.left + deltaX, originalBounds.top + deltaY);
+
+			handleCellMove();
+			Rect currentBounds = mHoverCell.getCurrentBounds();
+			mAutoScroller.update(currentBounds.top, currentBounds.bottom);
+			break;
+		case MotionEvent.ACTION_UP:
+			touchEventsEnded();
+			break;
+		case MotionEvent.ACTION_CANCEL:
+			touchEventsCancelled();
+			break;
+		case MotionEvent.ACTION_POINTER_UP:
+			pointerIndex = (event.getAction() & MotionEvent.ACTION_POINTER_INDEX_MASK) >> MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+			if (event.getPointerId(pointerIndex) == mActivePointerId) {
+				touchEventsEnded();
+			}
+			break;
+		default:
+			break;
+		}
+
+		if (mCellIsMobile) {
+			return false;
+		}
+		return super.onTouchEvent(event);
+	}
+
+	/**
+	 * Determines the cell the center of the hover cell is in. If it differs from the
+	 * current target cell, the cells between the previous and the new target cell are
+	 * animated to make room for the hover cell. Other cells are not touched.
+	 */
+	private void handleCellMove() {
+		int centerX = mHoverCell.getCurrentBounds().centerX();
+		int centerY = mHoverCell.getCurrentBounds().centerY();
+
+		int targetPosition = INVALID_POSITION;
+		for (int i = 0; i < getChildCount(); i++) {
+			View child = getChildAt(i);
+			if (centerX >= child.getLeft() && centerX < child.getRight() && centerY >= child.getTop() && centerY < child.getBottom()) {
+				targetPosition = getFirstVisiblePosition() + i;
+				break;
+			}
+		}
+		if (targetPosition == INVALID_POSITION || targetPosition == mTargetPosition) {
+			return;
+		}
+
+		int previousTargetPosition = mTargetPosition;
+		mTargetPosition = targetPosition;
+
+		int firstVisiblePosition = getFirstVisiblePosition();
+		int numColumns = getColumnCount();
+		int from = Math.max(Math.min(previousTargetPosition, targetPosition), firstVisiblePosition);
+		int to = Math.min(Math.max(previousTargetPosition, targetPosition), firstVisiblePosition + getChildCount() - 1);
+		for (int position = from; position <= to; position++) {
+			if (position != mMobilePosition) {
+				animateDragOffset(getChildAt(position - firstVisiblePosition), position, numColumns);
+			}
+		}
+	}
+
+	/**
+	 * Returns the position of the cell the item at given position is displayed in,
+	 * given the original and current position of the hover cell.
+	 */
+	private int getDisplayPosition(int position) {
+		if (position > mMobilePosition && position <= mTargetPosition) {
+			return position - 1;
+		}
+		if (position < mMobilePosition && position >= mTargetPosition) {
+			return position + 1;
+		}
+		return position;
+	}
+
+	private void animateDragOffset(View view, int position, int numColumns) {
+		int displayPosition = getDisplayPosition(position);
+		float translationX = getCellLeft(displayPosition, numColumns) - getCellLeft(position, numColumns);
+		float translationY = getCellTop(displayPosition, numColumns) - getCellTop(position, numColumns);
+		mShiftAnimator.animateTo(view, translationX, translationY);
+	}
+
+	/**
+	 * Applies the translations of all visible cells right away. Called when the
+	 * visible cells change, since their views may have been recycled.
+	 */
+	private void applyDragOffsets() {
+		mShiftAnimator.end();
+
+		int firstVisiblePosition = getFirstVisiblePosition();
+		int numColumns = getColumnCount();
+		for (int i = 0; i < getChildCount(); i++) {
+			View child = getChildAt(i);
+			int position = firstVisiblePosition + i;
+			int displayPosition = getDisplayPosition(position);
+			ViewHelper.setTranslationX(child, getCellLeft(displayPosition, numColumns) - getCellLeft(position, numColumns));
+			ViewHelper.setTranslationY(child, getCellTop(displayPosition, numColumns) - getCellTop(position, numColumns));
+			child.setVisibility(position == mMobilePosition ? INVISIBLE : VISIBLE);
+		}
+	}
+
+	/**
+	 * Resets the translations of all visible cells, and makes them visible.
+	 */
+	private void clearDragOffsets() {
+		mShiftAnimator.end();
+
+		for (int i = 0; i < getChildCount(); i++) {
+			View child = getChildAt(i);
+			ViewHelper.setTranslationX(child, 0);
+			ViewHelper.setTranslationY(child, 0);
+			child.setVisibility(VISIBLE);
+		}
+	}
+
+	/**
+	 * Returns the left of the cell at given position, as laid out.
+	 */
+	private int getCellLeft(int position, int numColumns) {
+		int firstVisiblePosition = getFirstVisiblePosition();
+		View view = getChildAt(position - firstVisiblePosition);
+		if (view == null) {
+			int column = ((position - firstVisiblePosition) % numColumns + numColumns) % numColumns;
+			view = getChildAt(Math.min(column, getChildCount() - 1));
+		}
+		return view == null ? 0 : view.getLeft();
+	}
+
+	/**
+	 * Returns the top of the cell at given position, as laid out. The top of cells in
+	 * rows which are not visible is extrapolated from the visible rows.
+	 */
+	private int getCellTop(int position, int numColumns) {
+		int firstVisiblePosition = getFirstVisiblePosition();
+		int childCount = getChildCount();
+		View view = getChildAt(position - firstVisiblePosition);
+		if (view != null || childCount == 0) {
+			return view == null ? 0 : view.getTop();
+		}
+
+		int rowHeight = childCount > numColumns ? getChildAt(numColumns).getTop() - getChildAt(0).getTop() : getChildAt(0).getHeight();
+		if (position < firstVisiblePosition) {
+			int rows = (firstVisiblePosition - position + numColumns - 1) / numColumns;
+			return getChildAt(0).getTop() - rows * rowHeight;
+		}
+
+		int lastRowIndex = (childCount - 1) / numColumns * numColumns;
+		int rows = (position - firstVisiblePosition - lastRowIndex) / numColumns;
+		return getChildAt(lastRowIndex).getTop() + rows * rowHeight;
+	}
+
+	/**
+	 * Returns the number of columns, counting the cells in the first row on API levels
+	 * where {@link GridView#getNumColumns()} is not available.
+	 */
+	private int getColumnCount() {
+		if (Build.VERSION.SDK_INT >= 11) {
+			return getNumColumnsCompat();
+		}
+
+		int childCount = getChildCount();
+		int numColumns = 1;
+		while (numColumns < childCount && getChildAt(numColumns).getTop() == getChildAt(0).getTop()) {
+			numColumns++;
+		}
+		return numColumns;
+	}
+
+	@TargetApi(11)
+	private int getNumColumnsCompat() {
+		return Math.max(1, getNumColumns());
+	}
+
+	/**
+	 * Moves the dragged item to its target position in the adapter. If the root adapter is not
+	 * an {@link com.haarman.listviewanimations.ObservableAdapter}, the adapter is notified afterwards.
+	 */
+	private void moveMobileItem() {
+		if (mMobilePosition == mTargetPosition || !mItemMover.begin(getAdapter())) {
+			return;
+		}
+		try {
+			mItemMover.move(mMobilePosition, mTargetPosition);
+		} finally {
+			mItemMover.end();
+		}
+	}
+
+	/**
+	 * Animates the hover cell into its target cell, and moves the item there in the adapter.
+	 */
+	private void touchEventsEnded() {
+		if (mCellIsMobile || mIsWaitingForScrollFinish) {
+			mCellIsMobile = false;
+			mIsWaitingForScrollFinish = false;
+			mAutoScroller.stop();
+			mActivePointerId = INVALID_POINTER_ID;
+
+			if (mScrollState != OnScrollListener.SCROLL_STATE_IDLE) {
+				mIsWaitingForScrollFinish = true;
+				return;
+			}
+
+			int numColumns = getColumnCount();
+			setEnabled(false);
+			mHoverCell.settleTo(getCellLeft(mTargetPosition, numColumns), getCellTop(mTargetPosition, numColumns));
+		} else {
+			touchEventsCancelled();
+		}
+	}
+
+	/**
+	 * Resets all the appropriate fields to a default state.
+	 */
+	private void touchEventsCancelled() {
+		if (mCellIsMobile) {
+			clearDragOffsets();
+			mMobilePosition = INVALID_POSITION;
+			mTargetPosition = INVALID_POSITION;
+			mHoverCell.release();
+			invalidate();
+		}
+		mCellIsMobile = false;
+		mAutoScroller.stop();
+		mActivePointerId = INVALID_POINTER_ID;
+	}
+
+	private void onHoverCellSettled() {
+		clearDragOffsets();
+		moveMobileItem();
+		mMobilePosition = INVALID_POSITION;
+		mTargetPosition = INVALID_POSITION;
+
+		mHoverCell.release();
+		setEnabled(true);
+		invalidate();
+	}
+
+	private final AutoScroller.Callback mAutoScrollerCallback = new AutoScroller.Callback() {
+
+		@Override
+		public boolean canScroll(int direction) {
+			if (direction < 0) {
+				return computeVerticalScrollOffset() > 0;
+			}
+			return computeVerticalScrollOffset() + computeVerticalScrollExtent() < computeVerticalScrollRange();
+		}
+
+		@Override
+		public void onAutoScroll() {
+			if (mCellIsMobile) {
+				handleCellMove();
+			} else {
+				mAutoScroller.stop();
+			}
+		}
+	};
+
+	/**
+	 * Reapplies the translations when the visible cells change while dragging, and
+	 * finishes a drop which was waiting for the grid to stop scrolling.
+	 */
+	private OnScrollListener mScrollListener = new OnScrollListener() {
+
+		private int mPreviousFirstVisibleItem = -1;
+		private int mPreviousVisibleItemCount = -1;
+
+		@Override
+		public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+			boolean visibleCellsChanged = firstVisibleItem != mPreviousFirstVisibleItem || visibleItemCount != mPreviousVisibleItemCount;
+			mPreviousFirstVisibleItem = firstVisibleItem;
+			mPreviousVisibleItemCount = visibleItemCount;
+
+			if (visibleCellsChanged && mCellIsMobile) {
+				applyDragOffsets();
+				handleCellMove();
+			}
+		}
+
+		@Override
+		public void onScrollStateChanged(AbsListView view, int scrollState) {
+			mScrollState = scrollState;
+			if (scrollState == SCROLL_STATE_IDLE && mIsWaitingForScrollFinish) {
+				touchEventsEnded();
+			}
+		}
+	};
+}
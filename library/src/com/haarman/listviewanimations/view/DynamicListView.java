@@ -17,13 +17,12 @@
 package com.haarman.listviewanimations.view;
 
 import android.content.Context;
-import android.graphics.Bitmap;
+import android.database.DataSetObserver;
 import android.graphics.Canvas;
 import android.graphics.Rect;
-import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.util.DisplayMetrics;
+import android.util.SparseBooleanArray;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
@@ -36,19 +35,20 @@ import android.widget.HeaderViewListAdapter;
 import android.widget.ListAdapter;
 import android.widget.ListView;
 
+import com.haarman.listviewanimations.BaseAdapterDecorator;
+import com.haarman.listviewanimations.ObservableAdapter;
 import com.haarman.listviewanimations.itemmanipulation.SwipeOnTouchListener;
 import com.nineoldandroids.animation.Animator;
 import com.nineoldandroids.animation.AnimatorListenerAdapter;
 import com.nineoldandroids.animation.ObjectAnimator;
-import com.nineoldandroids.animation.TypeEvaluator;
-import com.nineoldandroids.animation.ValueAnimator;
 import com.nineoldandroids.view.ViewHelper;
 
 /**
  * The DynamicListView is an extension of {@link ListView} that supports cell dragging
  * and swapping.
  * </p>
- * Make sure your adapter has stable ids, and override {@link ListAdapter#hasStableIds()} to return true.</br>
+ * Make sure your adapter implements {@link Movable} or {@link Swappable}. Otherwise, make sure it
+ * has stable ids, and override {@link ListAdapter#hasStableIds()} to return true.</br>
  * </p>
  * This layout is in charge of positioning the hover cell in the correct location
  * on the screen in response to user touch events. It uses the position of the
@@ -67,6 +67,19 @@ import com.nineoldandroids.view.ViewHelper;
  * When the hover cell is either above or below the bounds of the ListView, this
  * ListView also scrolls on its own so as to reveal additional content.
  * </p>
+ * If the adapter implements {@link Movable} or {@link Swappable}, as every
+ * {@link BaseAdapterDecorator} does, the data set is not changed while dragging.
+ * Instead, the cells between the original and the current position of the hover cell
+ * are translated to make room for it, without any layout or rebinding of views. When the
+ * hover cell is released, {@link Movable#moveItem(int, int)} is called once, or for a
+ * Swappable adapter, a series of {@link Swappable#swapItems(int, int)} calls is made.
+ * Stable ids are not required in this case. Other adapters are changed on every swap.
+ * </p>
+ * With a Movable or Swappable adapter and {@link #CHOICE_MODE_MULTIPLE}, long pressing a checked
+ * item drags all visible checked items together, as a single block. When the block is
+ * released, the items are moved in a single batch if the adapter is an
+ * {@link ObservableAdapter}, and their checked states move along.
+ * </p>
  * See http://youtu.be/_BZIvjMgH-Q
  */
 public class DynamicListView extends ListView {
@@ -75,7 +88,6 @@ public class DynamicListView extends ListView {
 		public Drawable onHoverCellCreated(Drawable hoverCellDrawable);
 	}
 
-	private final int SMOOTH_SCROLL_AMOUNT_AT_EDGE = 15;
 	private final int MOVE_DURATION = 150;
 
 	private int mLastEventY = -1, mLastEventX = -1;
@@ -87,16 +99,20 @@ public class DynamicListView extends ListView {
 
 	private boolean mCellIsMobile = false;
 	private boolean mIsMobileScrolling = false;
-	private int mSmoothScrollAmountAtEdge = 0;
+	private AutoScroller mAutoScroller;
 
 	private final int INVALID_ID = -1;
 	private long mAboveItemId = INVALID_ID;
 	private long mMobileItemId = INVALID_ID;
 	private long mBelowItemId = INVALID_ID;
 
-	private Drawable mHoverCell;
-	private Rect mHoverCellCurrentBounds;
-	private Rect mHoverCellOriginalBounds;
+	private final HoverCell mHoverCell = new HoverCell(this, new AnimatorListenerAdapter() {
+		@Override
+		public void onAnimationEnd(Animator animation) {
+			onHoverCellSettled();
+		}
+	});
+	private View mReleasedMobileView;
 
 	private final int INVALID_POINTER_ID = -1;
 	private int mActivePointerId = INVALID_POINTER_ID;
@@ -114,6 +130,60 @@ public class DynamicListView extends ListView {
 
 	private OnHoverCellListener mOnHoverCellListener;
 
+	private boolean mIsDragDeferred;
+
+	/**
+	 * The positions of the dragged items in ascending order, and the heights they take up including the divider.
+	 */
+	private int[] mMobilePositions = new int[4];
+	private int[] mMobileShifts = new int[4];
+	private int mMobileCount;
+	private int mMobileShift;
+
+	/**
+	 * The position the first dragged item would get if the dragged items were dropped now.
+	 */
+	private int mTargetPosition = INVALID_POSITION;
+	private final ShiftAnimator mShiftAnimator = new ShiftAnimator(MOVE_DURATION);
+	private final ItemMover mItemMover = new ItemMover();
+	private int[] mCheckedPositions = new int[4];
+
+	private RecyclerListener mRecyclerListener;
+
+	/**
+	 * Resets the translation and visibility of views which scroll off while dragging,
+	 * before they are reused for other items.
+	 */
+	private final RecyclerListener mDragRecyclerListener = new RecyclerListener() {
+		@Override
+		public void onMovedToScrapHeap(View view) {
+			if (mIsDragDeferred) {
+				mShiftAnimator.cancel(view);
+				ViewHelper.setTranslationY(view, 0);
+				view.setVisibility(VISIBLE);
+			}
+			if (mRecyclerListener != null) {
+				mRecyclerListener.onMovedToScrapHeap(view);
+			}
+		}
+	};
+
+	private final ChildIdCache mChildIdCache = new ChildIdCache(this);
+	private BaseAdapter mObservedAdapter;
+	private boolean mDataSetObserverRegistered;
+	private final DataSetObserver mDataSetObserver = new DataSetObserver() {
+
+		@Override
+		public void onChanged() {
+			mChildIdCache.invalidate();
+		}
+
+		@Override
+		public void onInvalidated() {
+			mChildIdCache.invalidate();
+		}
+	};
+
 	public DynamicListView(Context context) {
 		super(context);
 		init(context);
@@ -132,16 +202,63 @@ public class DynamicListView extends ListView {
 	public void init(Context context) {
 		setOnItemLongClickListener(mOnItemLongClickListener);
 		setOnScrollListener(mScrollListener);
-		DisplayMetrics metrics = context.getResources().getDisplayMetrics();
-		mSmoothScrollAmountAtEdge = (int) (SMOOTH_SCROLL_AMOUNT_AT_EDGE / metrics.density);
+		mAutoScroller = new AutoScroller(this, mAutoScrollerCallback);
+		super.setRecyclerListener(mDragRecyclerListener);
 		ViewConfiguration vc = ViewConfiguration.get(getContext());
 		mSlop = vc.getScaledTouchSlop();
 	}
 
 	public void setAdapter(BaseAdapter adapter) {
+		unregisterDataSetObserver();
+		mObservedAdapter = adapter;
+		if (getWindowToken() != null) {
+			registerDataSetObserver();
+		}
+		mChildIdCache.invalidate();
+
 		super.setAdapter(adapter);
 	}
 
+	/**
+	 * Observes the adapter while attached, so a detached DynamicListView is not kept alive by its adapter.
+	 */
+	private void registerDataSetObserver() {
+		if (mObservedAdapter != null && !mDataSetObserverRegistered) {
+			mObservedAdapter.registerDataSetObserver(mDataSetObserver);
+			mDataSetObserverRegistered = true;
+		}
+	}
+
+	private void unregisterDataSetObserver() {
+		if (mDataSetObserverRegistered) {
+			mObservedAdapter.unregisterDataSetObserver(mDataSetObserver);
+			mDataSetObserverRegistered = false;
+		}
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		registerDataSetObserver();
+		/* The adapter may have changed while detached */
+		mChildIdCache.invalidate();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		unregisterDataSetObserver();
+		mAutoScroller.stop();
+		mShiftAnimator.clear();
+		mHoverCell.clear();
+	}
+
+	@Override
+	protected void layoutChildren() {
+		super.layoutChildren();
+		mChildIdCache.invalidate();
+	}
+
 	@Override
 	@Deprecated
 	/**
@@ -177,49 +294,140 @@ public class DynamicListView extends ListView {
 		mTotalOffset = 0;
 
 		mMobileItemId = getAdapter().getItemId(position);
-		mHoverCell = getAndAddHoverView(selectedView);
-		if (mOnHoverCellListener != null) {
-			mHoverCell = mOnHoverCellListener.onHoverCellCreated(mHoverCell);
-		}
+		mIsDragDeferred = ItemMover.canMove(getAdapter());
+		setMobilePositions(position);
+
+		showHoverCell(position);
 		selectedView.setVisibility(INVISIBLE);
 
 		mCellIsMobile = true;
 		getParent().requestDisallowInterceptTouchEvent(true);
 
-		updateNeighborViewsForID(mMobileItemId);
+		if (mIsDragDeferred) {
+			mTargetPosition = mMobilePositions[0];
+			animateDragOffsets();
+		} else {
+			updateNeighborViewsForID(mMobileItemId);
+		}
+	}
 
+	/**
+	 * Stores the positions of the items to drag. This is the item at given position, unless
+	 * the adapter is {@link Movable} or {@link Swappable}, the choice mode is {@link #CHOICE_MODE_MULTIPLE} and the
+	 * item is checked. In that case all visible checked items are dragged together as a single block.
+	 */
+	private void setMobilePositions(int position) {
+		mMobileCount = 0;
+		mMobileShift = 0;
+
+		int firstVisiblePosition = getFirstVisiblePosition();
+		if (mIsDragDeferred && getChoiceMode() == CHOICE_MODE_MULTIPLE && isItemChecked(position)) {
+			int minPosition = getHeaderViewsCount();
+			int maxPosition = getCount() - getFooterViewsCount() - 1;
+			for (int i = 0; i < getChildCount(); i++) {
+				int childPosition = firstVisiblePosition + i;
+				if (childPosition >= minPosition && childPosition <= maxPosition && isItemChecked(childPosition)) {
+					addMobilePosition(childPosition, getChildAt(i));
+				}
+			}
+		} else {
+			addMobilePosition(position, getChildAt(position - firstVisiblePosition));
+		}
+	}
+
+	private void addMobilePosition(int position, View view) {
+		if (mMobileCount == mMobilePositions.length) {
+			int[] positions = new int[mMobileCount * 2];
+			int[] shifts = new int[mMobileCount * 2];
+			System.arraycopy(mMobilePositions, 0, positions, 0, mMobileCount);
+			System.arraycopy(mMobileShifts, 0, shifts, 0, mMobileCount);
+			mMobilePositions = positions;
+			mMobileShifts = shifts;
+		}
+
+		int shift = view.getHeight() + getDividerHeight();
+		mMobilePositions[mMobileCount] = position;
+		mMobileShifts[mMobileCount] = shift;
+		mMobileCount++;
+		mMobileShift += shift;
+	}
+
+	private boolean isMobilePosition(int position) {
+		for (int i = 0; i < mMobileCount; i++) {
+			if (mMobilePositions[i] == position) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
-	 * Creates the hover cell with the appropriate bitmap and of appropriate
-	 * size. The hover cell's BitmapDrawable is drawn on top of the bitmap every
-	 * single time an invalidate call is made.
+	 * Creates the hover cell, showing a screenshot of the dragged views. The hover cell
+	 * is drawn on top of the list every single time an invalidate call is made. When several
+	 * items are dragged, the hover cell shows them stacked, and is positioned such that the
+	 * item at given position stays in place.
 	 */
-	private BitmapDrawable getAndAddHoverView(View v) {
+	private void showHoverCell(int position) {
+		int firstVisiblePosition = getFirstVisiblePosition();
+		View v = getChildAt(position - firstVisiblePosition);
 
-		int w = v.getWidth();
-		int h = v.getHeight();
 		int top = v.getTop();
-		int left = v.getLeft();
+		for (int i = 0; i < mMobileCount && mMobilePositions[i] < position; i++) {
+			top -= mMobileShifts[i];
+		}
 
-		Bitmap b = getBitmapFromView(v);
+		Canvas canvas = mHoverCell.beginCapture(v.getWidth(), mMobileShift - getDividerHeight(), mMobileCount == 1 && v.isOpaque());
+		int y = 0;
+		for (int i = 0; i < mMobileCount; i++) {
+			canvas.save();
+			canvas.translate(0, y);
+			getChildAt(mMobilePositions[i] - firstVisiblePosition).draw(canvas);
+			canvas.restore();
+			y += mMobileShifts[i];
+		}
+		mHoverCell.endCapture(v.getLeft(), top, mOnHoverCellListener);
+	}
 
-		BitmapDrawable drawable = new BitmapDrawable(getResources(), b);
+	/**
+	 * Sets the maximum speed at which the list scrolls while an item is dragged into
+	 * its top or bottom edge zone. The speed increases with how far the item is dragged
+	 * into the edge zone, and with how long it is held there. Defaults to 2500dp per second.
+	 * @param pixelsPerSecond the maximum speed in pixels per second, or 0 to disable scrolling.
+	 */
+	public void setMaxAutoScrollSpeed(int pixelsPerSecond) {
+		mAutoScroller.setMaxSpeed(pixelsPerSecond);
+	}
 
-		mHoverCellOriginalBounds = new Rect(left, top, left + w, top + h);
-		mHoverCellCurrentBounds = new Rect(mHoverCellOriginalBounds);
+	/**
+	 * Sets the height of the zones at the top and bottom of the list in which a dragged
+	 * item makes the list scroll. Defaults to 48dp.
+	 * @param pixels the height of the edge zones in pixels.
+	 */
+	public void setAutoScrollEdgeSize(int pixels) {
+		mAutoScroller.setEdgeSize(pixels);
+	}
 
-		drawable.setBounds(mHoverCellCurrentBounds);
+	/**
+	 * Sets whether the bitmap of the hover cell may use the RGB_565 configuration,
+	 * which takes half the memory of ARGB_8888, when the dragged view is opaque.
+	 * Defaults to false.
+	 */
+	public void setHoverCellRgb565Enabled(boolean hoverCellRgb565Enabled) {
+		mHoverCell.setRgb565Enabled(hoverCellRgb565Enabled);
+	}
 
-		return drawable;
+	/**
+	 * Returns the number of hover cells whose bitmap was reused from the pool.
+	 */
+	public int getHoverBitmapPoolHitCount() {
+		return mHoverCell.getPoolHitCount();
 	}
 
-	/** Returns a bitmap showing a screenshot of the view passed in. */
-	private Bitmap getBitmapFromView(View v) {
-		Bitmap bitmap = Bitmap.createBitmap(v.getWidth(), v.getHeight(), Bitmap.Config.ARGB_8888);
-		Canvas canvas = new Canvas(bitmap);
-		v.draw(canvas);
-		return bitmap;
+	/**
+	 * Returns the number of hover cells for which a new bitmap had to be allocated.
+	 */
+	public int getHoverBitmapPoolMissCount() {
+		return mHoverCell.getPoolMissCount();
 	}
 
 	/**
@@ -239,33 +447,21 @@ public class DynamicListView extends ListView {
 		mBelowItemId = position + 1 < adapter.getCount() ? adapter.getItemId(position + 1) : INVALID_ROW_ID;
 	}
 
-	/** Retrieves the view in the list corresponding to itemID */
+	/**
+	 * Retrieves the view in the list corresponding to itemID. The ids of the visible
+	 * items are cached until the next layout or data set change.
+	 */
 	public View getViewForID(long itemID) {
-		int firstVisiblePosition = getFirstVisiblePosition();
-		ListAdapter adapter = getAdapter();
-		if (!adapter.hasStableIds()) {
-			throw new IllegalStateException("Adapter doesn't have stable ids! Make sure your adapter has stable ids, and override hasStableIds() to return true.");
-		}
-
-		for (int i = 0; i < getChildCount(); i++) {
-			View v = getChildAt(i);
-			int position = firstVisiblePosition + i;
-			long id = adapter.getItemId(position);
-			if (id == itemID) {
-				return v;
-			}
-		}
-		return null;
+		int position = getPositionForID(itemID);
+		return position == INVALID_POSITION ? null : getChildAt(position - getFirstVisiblePosition());
 	}
 
 	/** Retrieves the position in the list corresponding to itemID */
 	public int getPositionForID(long itemID) {
-		View v = getViewForID(itemID);
-		if (v == null) {
-			return -1;
-		} else {
-			return getPositionForView(v);
+		if (!getAdapter().hasStableIds()) {
+			throw new IllegalStateException("Adapter doesn't have stable ids! Make sure your adapter has stable ids, and override hasStableIds() to return true.");
 		}
+		return mChildIdCache.getPosition(itemID);
 	}
 
 	/**
@@ -276,9 +472,12 @@ public class DynamicListView extends ListView {
 	@Override
 	protected void dispatchDraw(Canvas canvas) {
 		super.dispatchDraw(canvas);
-		if (mHoverCell != null) {
-			mHoverCell.draw(canvas);
-		}
+		mHoverCell.draw(canvas);
+	}
+
+	@Override
+	public void setRecyclerListener(RecyclerListener listener) {
+		mRecyclerListener = listener;
 	}
 
 	@Override
@@ -374,9 +573,8 @@ public class DynamicListView extends ListView {
 			}
 
 			if (mCellIsMobile) {
-				mHoverCellCurrentBounds.offsetTo(mHoverCellOriginalBounds.left, mHoverCellOriginalBounds.top + deltaY + mTotalOffset);
-				mHoverCell.setBounds(mHoverCellCurrentBounds);
-				invalidate();
+				Rect originalBounds = mHoverCell.getOriginalBounds();
+				mHoverCell.offsetTo(originalBounds.left, originalBounds.top + deltaY + mTotalOffset);
 
 				handleCellSwitch();
 
@@ -433,8 +631,13 @@ public class DynamicListView extends ListView {
 	 * its new position.
 	 */
 	private void handleCellSwitch() {
+		if (mIsDragDeferred) {
+			handleCellMove();
+			return;
+		}
+
 		final int deltaY = mLastEventY - mDownY;
-		int deltaYTotal = mHoverCellOriginalBounds.top + mTotalOffset + deltaY;
+		int deltaYTotal = mHoverCell.getOriginalBounds().top + mTotalOffset + deltaY;
 
 		View belowView = getViewForID(mBelowItemId);
 		View mobileView = getViewForID(mMobileItemId);
@@ -447,14 +650,14 @@ public class DynamicListView extends ListView {
 
 			final long switchItemID = isBelow ? mBelowItemId : mAboveItemId;
 			View switchView = isBelow ? belowView : aboveView;
-			final int originalItem = getPositionForView(mobileView);
+			final int originalItem = getPositionForID(mMobileItemId);
 
 			if (switchView == null) {
 				updateNeighborViewsForID(mMobileItemId);
 				return;
 			}
 
-			swapElements(originalItem, getPositionForView(switchView));
+			swapElements(originalItem, getPositionForID(switchItemID));
 
 			BaseAdapter adapter;
 			if (getAdapter() instanceof HeaderViewListAdapter) {
@@ -510,16 +713,264 @@ public class DynamicListView extends ListView {
 		}
 	}
 
+	/**
+	 * Determines whether the hover cell has been moved past the cell above or below
+	 * its current position, without changing the data set. If so, that cell is
+	 * animated to make room for the hover cell, and the current position of the
+	 * hover cell is updated.
+	 */
+	private void handleCellMove() {
+		int hoverTop = mHoverCell.getCurrentBounds().top;
+		int firstVisiblePosition = getFirstVisiblePosition();
+		int minPosition = getHeaderViewsCount();
+		int maxPosition = getCount() - getFooterViewsCount() - 1;
+		int dividerHeight = getDividerHeight();
+
+		boolean moved = true;
+		while (moved) {
+			moved = false;
+
+			int belowPosition = getPositionForTarget(mTargetPosition);
+			View belowView = belowPosition <= maxPosition ? getChildAt(belowPosition - firstVisiblePosition) : null;
+			if (belowView != null && hoverTop > belowView.getTop() + getDragOffset(belowPosition) - mMobileShift + belowView.getHeight() + dividerHeight) {
+				mTargetPosition++;
+				animateDragOffset(belowView, getDragOffset(belowPosition));
+				moved = true;
+				continue;
+			}
+
+			int abovePosition = mTargetPosition > minPosition ? getPositionForTarget(mTargetPosition - 1) : INVALID_POSITION;
+			View aboveView = abovePosition != INVALID_POSITION ? getChildAt(abovePosition - firstVisiblePosition) : null;
+			if (aboveView != null && hoverTop < aboveView.getTop() + getDragOffset(abovePosition)) {
+				mTargetPosition--;
+				animateDragOffset(aboveView, getDragOffset(abovePosition));
+				moved = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the position of the item which is not dragged, and which would end up
+	 * right after the dragged items if they were dropped at given target position.
+	 */
+	private int getPositionForTarget(int targetPosition) {
+		int position = targetPosition;
+		for (int i = 0; i < mMobileCount && mMobilePositions[i] <= position; i++) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Returns the vertical translation of the cell at given position, given the
+	 * original positions of the dragged items and their current target position.
+	 */
+	private int getDragOffset(int position) {
+		int offset = 0;
+		int targetPosition = position;
+		for (int i = 0; i < mMobileCount && mMobilePositions[i] < position; i++) {
+			offset -= mMobileShifts[i];
+			targetPosition--;
+		}
+		return targetPosition >= mTargetPosition ? offset + mMobileShift : offset;
+	}
+
+	/**
+	 * Animates the visible cells from their laid out position to their translation.
+	 */
+	private void animateDragOffsets() {
+		int firstVisiblePosition = getFirstVisiblePosition();
+		for (int i = 0; i < getChildCount(); i++) {
+			int position = firstVisiblePosition + i;
+			if (isMobilePosition(position)) {
+				getChildAt(i).setVisibility(INVISIBLE);
+			} else if (getDragOffset(position) != 0) {
+				animateDragOffset(getChildAt(i), getDragOffset(position));
+			}
+		}
+	}
+
+	private void animateDragOffset(View view, int offset) {
+		mShiftAnimator.animateTo(view, 0, offset);
+	}
+
+	/**
+	 * Applies the translations of all visible cells right away. Called when the
+	 * visible cells change, since their views may have been recycled.
+	 */
+	private void applyDragOffsets() {
+		mShiftAnimator.end();
+
+		int firstVisiblePosition = getFirstVisiblePosition();
+		for (int i = 0; i < getChildCount(); i++) {
+			View child = getChildAt(i);
+			int position = firstVisiblePosition + i;
+			ViewHelper.setTranslationY(child, getDragOffset(position));
+			child.setVisibility(isMobilePosition(position) ? INVISIBLE : VISIBLE);
+		}
+	}
+
+	/**
+	 * Resets the translations of all visible cells, and makes them visible.
+	 */
+	private void clearDragOffsets() {
+		mShiftAnimator.end();
+
+		for (int i = 0; i < getChildCount(); i++) {
+			View child = getChildAt(i);
+			ViewHelper.setTranslationY(child, 0);
+			child.setVisibility(VISIBLE);
+		}
+	}
+
+	/**
+	 * Returns the top of the hover cell's current position, as laid out once the
+	 * items have been moved there.
+	 */
+	private int getTargetTop() {
+		int firstVisiblePosition = getFirstVisiblePosition();
+
+		int belowPosition = getPositionForTarget(mTargetPosition);
+		View belowView = belowPosition < getCount() ? getChildAt(belowPosition - firstVisiblePosition) : null;
+		if (belowView != null) {
+			return belowView.getTop() + getDragOffset(belowPosition) - mMobileShift;
+		}
+
+		int abovePosition = mTargetPosition > 0 ? getPositionForTarget(mTargetPosition - 1) : INVALID_POSITION;
+		View aboveView = abovePosition != INVALID_POSITION ? getChildAt(abovePosition - firstVisiblePosition) : null;
+		if (aboveView != null) {
+			return aboveView.getBottom() + getDragOffset(abovePosition) + getDividerHeight();
+		}
+		return mHoverCell.getCurrentBounds().top;
+	}
+
+	/**
+	 * Ends a deferred drag: animates the hover cell to its current position, and
+	 * moves the dragged items there in the adapter.
+	 */
+	private void touchEventsEndedDeferred() {
+		settleHoverCell(getTargetTop());
+	}
+
+	/**
+	 * Animates the hover cell from its current bounds to given top.
+	 */
+	private void settleHoverCell(int top) {
+		setEnabled(false);
+		mHoverCell.settleTo(mHoverCell.getOriginalBounds().left, top);
+	}
+
+	private void onHoverCellSettled() {
+		if (mIsDragDeferred) {
+			clearDragOffsets();
+			moveMobileItems();
+			resetDragDeferred();
+		} else {
+			mAboveItemId = INVALID_ID;
+			mBelowItemId = INVALID_ID;
+			mReleasedMobileView.setVisibility(VISIBLE);
+			mReleasedMobileView = null;
+		}
+
+		mMobileItemId = INVALID_ID;
+		mHoverCell.release();
+		setEnabled(true);
+		invalidate();
+	}
+
+	/**
+	 * Moves the dragged items to their target positions in the adapter. If the root adapter
+	 * is an {@link ObservableAdapter}, the moves are reported as a single batch. Otherwise,
+	 * the adapter is notified once all items have been moved.
+	 */
+	private void moveMobileItems() {
+		if (!mItemMover.begin(getAdapter())) {
+			return;
+		}
+		try {
+			/*
+			 * Items moving down are moved last to first, and items moving up first to last,
+			 * so that no move changes the position of an item which has not been moved yet.
+			 */
+			int headerViewsCount = getHeaderViewsCount();
+			for (int i = mMobileCount - 1; i >= 0; i--) {
+				if (mMobilePositions[i] < mTargetPosition + i) {
+					mItemMover.move(mMobilePositions[i] - headerViewsCount, mTargetPosition + i - headerViewsCount);
+				}
+			}
+			for (int i = 0; i < mMobileCount; i++) {
+				if (mMobilePositions[i] > mTargetPosition + i) {
+					mItemMover.move(mMobilePositions[i] - headerViewsCount, mTargetPosition + i - headerViewsCount);
+				}
+			}
+		} finally {
+			mItemMover.end();
+		}
+
+		if (getChoiceMode() == CHOICE_MODE_MULTIPLE) {
+			moveCheckedStates();
+		}
+	}
+
+	/**
+	 * Moves the checked states of the items along with the items.
+	 */
+	private void moveCheckedStates() {
+		SparseBooleanArray checkedStates = getCheckedItemPositions();
+		if (checkedStates == null) {
+			return;
+		}
+
+		if (mCheckedPositions.length < checkedStates.size()) {
+			mCheckedPositions = new int[checkedStates.size() * 2];
+		}
+		int checkedCount = 0;
+		for (int i = 0; i < checkedStates.size(); i++) {
+			if (checkedStates.valueAt(i)) {
+				mCheckedPositions[checkedCount++] = checkedStates.keyAt(i);
+			}
+		}
+
+		clearChoices();
+		for (int i = 0; i < checkedCount; i++) {
+			setItemChecked(getDropPosition(mCheckedPositions[i]), true);
+		}
+	}
+
+	/**
+	 * Returns the position the item at given position gets when the dragged items are dropped.
+	 */
+	private int getDropPosition(int position) {
+		int targetPosition = position;
+		for (int i = 0; i < mMobileCount; i++) {
+			if (mMobilePositions[i] == position) {
+				return mTargetPosition + i;
+			}
+			if (mMobilePositions[i] < position) {
+				targetPosition--;
+			}
+		}
+		return targetPosition >= mTargetPosition ? targetPosition + mMobileCount : targetPosition;
+	}
+
+	private void resetDragDeferred() {
+		clearDragOffsets();
+		mIsDragDeferred = false;
+		mMobileCount = 0;
+		mMobileShift = 0;
+		mTargetPosition = INVALID_POSITION;
+	}
+
 	/**
 	 * Resets all the appropriate fields to a default state while also animating
 	 * the hover cell back to its correct location.
 	 */
 	private void touchEventsEnded() {
-		final View mobileView = getViewForID(mMobileItemId);
 		if (mCellIsMobile || mIsWaitingForScrollFinish) {
 			mCellIsMobile = false;
 			mIsWaitingForScrollFinish = false;
 			mIsMobileScrolling = false;
+			mAutoScroller.stop();
 			mActivePointerId = INVALID_POINTER_ID;
 
 			// If the autoscroller has not completed scrolling, we need to wait
@@ -532,33 +983,13 @@ public class DynamicListView extends ListView {
 				return;
 			}
 
-			mHoverCellCurrentBounds.offsetTo(mHoverCellOriginalBounds.left, mobileView.getTop());
-
-			ObjectAnimator hoverViewAnimator = ObjectAnimator.ofObject(mHoverCell, "bounds", sBoundEvaluator, mHoverCellCurrentBounds);
-			hoverViewAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-				@Override
-				public void onAnimationUpdate(ValueAnimator valueAnimator) {
-					invalidate();
-				}
-			});
-			hoverViewAnimator.addListener(new AnimatorListenerAdapter() {
-				@Override
-				public void onAnimationStart(Animator animation) {
-					setEnabled(false);
-				}
+			if (mIsDragDeferred) {
+				touchEventsEndedDeferred();
+				return;
+			}
 
-				@Override
-				public void onAnimationEnd(Animator animation) {
-					mAboveItemId = INVALID_ID;
-					mMobileItemId = INVALID_ID;
-					mBelowItemId = INVALID_ID;
-					mobileView.setVisibility(VISIBLE);
-					mHoverCell = null;
-					setEnabled(true);
-					invalidate();
-				}
-			});
-			hoverViewAnimator.start();
+			mReleasedMobileView = getViewForID(mMobileItemId);
+			settleHoverCell(mReleasedMobileView.getTop());
 		} else {
 			touchEventsCancelled();
 		}
@@ -568,69 +999,76 @@ public class DynamicListView extends ListView {
 	 * Resets all the appropriate fields to a default state.
 	 */
 	private void touchEventsCancelled() {
-		View mobileView = getViewForID(mMobileItemId);
+		if (mIsDragDeferred) {
+			if (mCellIsMobile) {
+				resetDragDeferred();
+				mMobileItemId = INVALID_ID;
+				mHoverCell.release();
+				invalidate();
+			}
+			mCellIsMobile = false;
+			mIsMobileScrolling = false;
+			mAutoScroller.stop();
+			mActivePointerId = INVALID_POINTER_ID;
+			return;
+		}
+
 		if (mCellIsMobile) {
+			View mobileView = getViewForID(mMobileItemId);
 			mAboveItemId = INVALID_ID;
 			mMobileItemId = INVALID_ID;
 			mBelowItemId = INVALID_ID;
 			mobileView.setVisibility(VISIBLE);
-			mHoverCell = null;
+			mHoverCell.release();
 			invalidate();
 		}
 		mCellIsMobile = false;
 		mIsMobileScrolling = false;
+		mAutoScroller.stop();
 		mActivePointerId = INVALID_POINTER_ID;
 	}
 
-	/**
-	 * This TypeEvaluator is used to animate the BitmapDrawable back to its
-	 * final location when the user lifts his finger by modifying the
-	 * BitmapDrawable's bounds.
-	 */
-	private final static TypeEvaluator<Rect> sBoundEvaluator = new TypeEvaluator<Rect>() {
-		public Rect evaluate(float fraction, Rect startValue, Rect endValue) {
-			return new Rect(interpolate(startValue.left, endValue.left, fraction), interpolate(startValue.top, endValue.top, fraction), interpolate(startValue.right, endValue.right, fraction),
-					interpolate(startValue.bottom, endValue.bottom, fraction));
-		}
-
-		public int interpolate(int start, int end, float fraction) {
-			return (int) (start + fraction * (end - start));
-		}
-	};
-
 	/**
 	 *  Determines whether this listview is in a scrolling state invoked
 	 *  by the fact that the hover cell is out of the bounds of the listview;
 	 */
 	private void handleMobileCellScroll() {
-		mIsMobileScrolling = handleMobileCellScroll(mHoverCellCurrentBounds);
+		mIsMobileScrolling = handleMobileCellScroll(mHoverCell.getCurrentBounds());
 	}
 
 	/**
-	 * This method is in charge of determining if the hover cell is above
-	 * or below the bounds of the listview. If so, the listview does an appropriate
-	 * upward or downward smooth scroll so as to reveal new items.
+	 * This method is in charge of determining if the hover cell is inside the
+	 * top or bottom edge zone of the listview. If so, the listview scrolls up or
+	 * down on every frame so as to reveal new items, until the hover cell leaves
+	 * the edge zone or the hover cell is released.
 	 */
 	public boolean handleMobileCellScroll(Rect r) {
-		int offset = computeVerticalScrollOffset();
-		int height = getHeight();
-		int extent = computeVerticalScrollExtent();
-		int range = computeVerticalScrollRange();
-		int hoverViewTop = r.top;
-		int hoverHeight = r.height();
+		return mAutoScroller.update(r.top, r.bottom);
+	}
 
-		if (hoverViewTop <= 0 && offset > 0) {
-			smoothScrollBy(-mSmoothScrollAmountAtEdge, 0);
-			return true;
-		}
+	private final AutoScroller.Callback mAutoScrollerCallback = new AutoScroller.Callback() {
 
-		if (hoverViewTop + hoverHeight >= height && (offset + extent) < range) {
-			smoothScrollBy(mSmoothScrollAmountAtEdge, 0);
-			return true;
+		@Override
+		public boolean canScroll(int direction) {
+			if (direction < 0) {
+				return computeVerticalScrollOffset() > 0;
+			}
+			return computeVerticalScrollOffset() + computeVerticalScrollExtent() < computeVerticalScrollRange();
 		}
 
-		return false;
-	}
+		@Override
+		public void onAutoScroll() {
+			if (!mCellIsMobile) {
+				mAutoScroller.stop();
+				return;
+			}
+
+			/* A swap which has not been laid out yet would be swapped again. */
+			if (!isLayoutRequested() && (mIsDragDeferred || mMobileItemId != INVALID_ID)) {
+				handleCellSwitch();
+			}
+		}
+	};
 
 	public void setIsParentHorizontalScrollContainer(boolean isParentHorizontalScrollContainer) {
 		mIsParentHorizontalScrollContainer = (mResIdOfDynamicTouchChild == 0) ? isParentHorizontalScrollContainer : false;
@@ -707,10 +1145,7 @@ public class DynamicListView extends ListView {
 		 */
 		public void checkAndHandleFirstVisibleCellChange() {
 			if (mCurrentFirstVisibleItem != mPreviousFirstVisibleItem) {
-				if (mCellIsMobile && mMobileItemId != INVALID_ID) {
-					updateNeighborViewsForID(mMobileItemId);
-					handleCellSwitch();
-				}
+				handleVisibleCellsChange();
 			}
 		}
 
@@ -722,14 +1157,32 @@ public class DynamicListView extends ListView {
 			int currentLastVisibleItem = mCurrentFirstVisibleItem + mCurrentVisibleItemCount;
 			int previousLastVisibleItem = mPreviousFirstVisibleItem + mPreviousVisibleItemCount;
 			if (currentLastVisibleItem != previousLastVisibleItem) {
-				if (mCellIsMobile && mMobileItemId != INVALID_ID) {
-					updateNeighborViewsForID(mMobileItemId);
-					handleCellSwitch();
-				}
+				handleVisibleCellsChange();
+			}
+		}
+
+		private void handleVisibleCellsChange() {
+			if (mCellIsMobile && mIsDragDeferred) {
+				applyDragOffsets();
+				handleCellSwitch();
+			} else if (mCellIsMobile && mMobileItemId != INVALID_ID) {
+				updateNeighborViewsForID(mMobileItemId);
+				handleCellSwitch();
 			}
 		}
 	};
 
+	/**
+	 * Moves an item using a series of {@link Swappable#swapItems(int, int)} calls, for
+	 * adapters which are not {@link Movable}.
+	 */
+	public static void moveItemBySwapping(Swappable swappable, int fromPosition, int toPosition) {
+		int step = fromPosition < toPosition ? 1 : -1;
+		for (int position = fromPosition; position != toPosition; position += step) {
+			swappable.swapItems(position, position + step);
+		}
+	}
+
 	/**
 	 * Interface, usually implemented by a {@link com.haarman.listviewanimations.BaseAdapterDecorator},
 	 * that indicates that it can swap the visual position of two list items.
@@ -747,4 +1200,22 @@ public class DynamicListView extends ListView {
 		 */
 		public void swapItems(int positionOne, int positionTwo);
 	}
+
+	/**
+	 * Interface, usually implemented by a {@link com.haarman.listviewanimations.BaseAdapterDecorator},
+	 * that indicates that it can move a list item to another position in a single operation.
+	 * When the adapter of a {@link DynamicListView} implements this interface, a dragged item is
+	 * moved once, when it is dropped.
+	 */
+	public interface Movable {
+
+		/**
+		 * Moves the item on the first adapter position to the second adapter position, shifting the items in between.
+		 * Be sure to call {@link android.widget.BaseAdapter#notifyDataSetChanged()} if appropriate.
+		 *
+		 * @param fromPosition The current adapter position of the item.
+		 * @param toPosition The new adapter position of the item.
+		 */
+		public void moveItem(int fromPosition, int toPosition);
+	}
 }
\ No newline at end of file
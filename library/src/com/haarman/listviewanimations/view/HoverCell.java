@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+import com.haarman.listviewanimations.view.DynamicListView.OnHoverCellListener;
+import com.nineoldandroids.animation.Animator;
+import com.nineoldandroids.animation.ValueAnimator;
+
+/**
+ * The hover cell of a {@link DynamicListView} or {@link DynamicGridView}: a screenshot of the
+ * dragged views, which follows the finger and settles into place when released. The bitmap,
+ * its drawable and the settle animator are reused for every drag.
+ */
+class HoverCell implements ValueAnimator.AnimatorUpdateListener {
+
+	private static final int BITMAPPOOLSIZE = 2;
+
+	private final View mParent;
+	private final BitmapPool mBitmapPool = new BitmapPool(BITMAPPOOLSIZE);
+	private final Canvas mCanvas = new Canvas();
+	private Bitmap mBitmap;
+	private BitmapDrawable mBitmapDrawable;
+	private boolean mRgb565Enabled;
+
+	private Drawable mDrawable;
+	private final Rect mCurrentBounds = new Rect();
+	private final Rect mOriginalBounds = new Rect();
+
+	private final ValueAnimator mSettleAnimator = ValueAnimator.ofFloat(0, 1);
+	private int mStartLeft;
+	private int mStartTop;
+	private int mEndLeft;
+	private int mEndTop;
+
+	/**
+	 * @param parent the view the hover cell is drawn in.
+	 * @param settleListener notified when the hover cell has settled into place.
+	 */
+	HoverCell(View parent, Animator.AnimatorListener settleListener) {
+		mParent = parent;
+		mSettleAnimator.addUpdateListener(this);
+		mSettleAnimator.addListener(settleListener);
+	}
+
+	void setRgb565Enabled(boolean rgb565Enabled) {
+		mRgb565Enabled = rgb565Enabled;
+	}
+
+	/**
+	 * Returns a cleared canvas of given size to draw the dragged views on. The bitmap
+	 * behind it is taken from a pool, and returned to it by {@link #release()}.
+	 */
+	Canvas beginCapture(int width, int height, boolean opaque) {
+		Bitmap.Config config = mRgb565Enabled && opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+		mBitmapPool.release(mBitmap);
+		mBitmap = mBitmapPool.acquire(width, height, config);
+		mCanvas.setBitmap(mBitmap);
+		return mCanvas;
+	}
+
+	/**
+	 * Shows the captured bitmap at given location, and lets given listener replace its drawable.
+	 */
+	void endCapture(int left, int top, OnHoverCellListener onHoverCellListener) {
+		if (mBitmapDrawable == null || mBitmapDrawable.getBitmap() != mBitmap) {
+			mBitmapDrawable = new BitmapDrawable(mParent.getResources(), mBitmap);
+		}
+
+		mOriginalBounds.set(left, top, left + mBitmap.getWidth(), top + mBitmap.getHeight());
+		mCurrentBounds.set(mOriginalBounds);
+		mBitmapDrawable.setBounds(mCurrentBounds);
+
+		mDrawable = mBitmapDrawable;
+		if (onHoverCellListener != null) {
+			mDrawable = onHoverCellListener.onHoverCellCreated(mDrawable);
+		}
+	}
+
+	/**
+	 * Captures given view, and shows it at its current location.
+	 */
+	void capture(View view, OnHoverCellListener onHoverCellListener) {
+		view.draw(beginCapture(view.getWidth(), view.getHeight(), view.isOpaque()));
+		endCapture(view.getLeft(), view.getTop(), onHoverCellListener);
+	}
+
+	boolean isShown() {
+		return mDrawable != null;
+	}
+
+	Rect getCurrentBounds() {
+		return mCurrentBounds;
+	}
+
+	Rect getOriginalBounds() {
+		return mOriginalBounds;
+	}
+
+	void offsetTo(int left, int top) {
+		mCurrentBounds.offsetTo(left, top);
+		mDrawable.setBounds(mCurrentBounds);
+		mParent.invalidate();
+	}
+
+	/**
+	 * Animates the hover cell from its current location to given location.
+	 */
+	void settleTo(int left, int top) {
+		Rect bounds = mDrawable.getBounds();
+		mStartLeft = bounds.left;
+		mStartTop = bounds.top;
+		mEndLeft = left;
+		mEndTop = top;
+		mSettleAnimator.start();
+	}
+
+	@Override
+	public void onAnimationUpdate(ValueAnimator animation) {
+		float fraction = animation.getAnimatedFraction();
+		offsetTo((int) (mStartLeft + fraction * (mEndLeft - mStartLeft)), (int) (mStartTop + fraction * (mEndTop - mStartTop)));
+	}
+
+	void draw(Canvas canvas) {
+		if (mDrawable != null) {
+			mDrawable.draw(canvas);
+		}
+	}
+
+	/**
+	 * Removes the hover cell, and returns its bitmap to the pool.
+	 */
+	void release() {
+		mDrawable = null;
+		mBitmapPool.release(mBitmap);
+		mBitmap = null;
+	}
+
+	/**
+	 * Releases the pooled bitmaps. Called when the parent is detached.
+	 */
+	void clear() {
+		mBitmapPool.clear();
+		mBitmapDrawable = null;
+	}
+
+	int getPoolHitCount() {
+		return mBitmapPool.getHitCount();
+	}
+
+	int getPoolMissCount() {
+		return mBitmapPool.getMissCount();
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.view;
+
+import android.widget.BaseAdapter;
+import android.widget.HeaderViewListAdapter;
+import android.widget.ListAdapter;
+
+import com.haarman.listviewanimations.BaseAdapterDecorator;
+import com.haarman.listviewanimations.ObservableAdapter;
+import com.haarman.listviewanimations.view.DynamicListView.Movable;
+import com.haarman.listviewanimations.view.DynamicListView.Swappable;
+
+/**
+ * Moves the dropped items in the adapter of a {@link DynamicListView} or {@link DynamicGridView}.
+ * The moves between {@link #begin(ListAdapter)} and {@link #end()} are reported as a single batch
+ * if the root adapter is an {@link ObservableAdapter}, or by a single
+ * {@link BaseAdapter#notifyDataSetChanged()} call otherwise.
+ */
+class ItemMover {
+
+	private BaseAdapter mAdapter;
+	private Movable mMovable;
+	private Swappable mSwappable;
+	private ObservableAdapter mObservableAdapter;
+
+	/**
+	 * Returns whether the items of given adapter, or of the adapter it wraps, can be moved.
+	 */
+	static boolean canMove(ListAdapter adapter) {
+		adapter = unwrap(adapter);
+		return adapter instanceof Movable || adapter instanceof Swappable;
+	}
+
+	private static ListAdapter unwrap(ListAdapter adapter) {
+		return adapter instanceof HeaderViewListAdapter ? ((HeaderViewListAdapter) adapter).getWrappedAdapter() : adapter;
+	}
+
+	/**
+	 * Starts moving items in given adapter.
+	 * @return false if the items of the adapter cannot be moved.
+	 */
+	boolean begin(ListAdapter adapter) {
+		adapter = unwrap(adapter);
+		mMovable = adapter instanceof Movable ? (Movable) adapter : null;
+		mSwappable = adapter instanceof Swappable ? (Swappable) adapter : null;
+		if (mMovable == null && mSwappable == null) {
+			return false;
+		}
+
+		mAdapter = adapter instanceof BaseAdapter ? (BaseAdapter) adapter : null;
+		BaseAdapter rootAdapter = adapter instanceof BaseAdapterDecorator ? ((BaseAdapterDecorator) adapter).getRootAdapter() : mAdapter;
+		mObservableAdapter = rootAdapter instanceof ObservableAdapter ? (ObservableAdapter) rootAdapter : null;
+		if (mObservableAdapter != null) {
+			mObservableAdapter.beginBatch();
+		}
+		return true;
+	}
+
+	/**
+	 * Moves an item using {@link Movable#moveItem(int, int)} if the adapter is Movable,
+	 * or a series of {@link Swappable#swapItems(int, int)} calls otherwise.
+	 */
+	void move(int fromPosition, int toPosition) {
+		if (mMovable != null) {
+			mMovable.moveItem(fromPosition, toPosition);
+		} else {
+			DynamicListView.moveItemBySwapping(mSwappable, fromPosition, toPosition);
+		}
+	}
+
+	/**
+	 * Reports the moves made since {@link #begin(ListAdapter)}, and releases the adapter.
+	 */
+	void end() {
+		if (mObservableAdapter != null) {
+			mObservableAdapter.commitBatch();
+		} else if (mAdapter != null) {
+			mAdapter.notifyDataSetChanged();
+		}
+
+		mAdapter = null;
+		mMovable = null;
+		mSwappable = null;
+		mObservableAdapter = null;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2013 Niek Haarman
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.haarman.listviewanimations.view;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.view.View;
+
+import com.nineoldandroids.animation.ValueAnimator;
+import com.nineoldandroids.view.ViewHelper;
+
+/**
+ * Animates the translation of the cells which make room for a dragged item. Every view
+ * gets a single {@link ValueAnimator}, which is reused for all following animations of that
+ * view, so that animating a cell to a new translation does not allocate.
+ */
+class ShiftAnimator {
+
+	private final Map<View, Shift> mShifts = new HashMap<View, Shift>();
+	private final List<Shift> mShiftList = new ArrayList<Shift>();
+	private final long mDuration;
+
+	ShiftAnimator(long duration) {
+		mDuration = duration;
+	}
+
+	/**
+	 * Animates given view from its current translation to given translation.
+	 */
+	void animateTo(View view, float translationX, float translationY) {
+		Shift shift = mShifts.get(view);
+		if (shift == null) {
+			shift = new Shift(view, mDuration);
+			mShifts.put(view, shift);
+			mShiftList.add(shift);
+		}
+		shift.animateTo(translationX, translationY);
+	}
+
+	/**
+	 * Ends all running animations, leaving their views at their final translation.
+	 */
+	void end() {
+		for (int i = 0; i < mShiftList.size(); i++) {
+			ValueAnimator animator = mShiftList.get(i).mAnimator;
+			if (animator.isStarted()) {
+				animator.end();
+			}
+		}
+	}
+
+	/**
+	 * Cancels the animation of given view, if any, and releases the view.
+	 */
+	void cancel(View view) {
+		Shift shift = mShifts.remove(view);
+		if (shift != null) {
+			shift.mAnimator.cancel();
+			mShiftList.remove(shift);
+		}
+	}
+
+	/**
+	 * Ends all running animations, and releases the views.
+	 */
+	void clear() {
+		end();
+		mShifts.clear();
+		mShiftList.clear();
+	}
+
+	private static class Shift implements ValueAnimator.AnimatorUpdateListener {
+
+		private final View mView;
+		private final ValueAnimator mAnimator;
+
+		private float mStartX;
+		private float mStartY;
+		private float mEndX;
+		private float mEndY;
+
+		Shift(View view, long duration) {
+			mView = view;
+			mAnimator = ValueAnimator.ofFloat(0, 1);
+			mAnimator.setDuration(duration);
+			mAnimator.addUpdateListener(this);
+		}
+
+		void animateTo(float translationX, float translationY) {
+			mAnimator.cancel();
+			mStartX = ViewHelper.getTranslationX(mView);
+			mStartY = ViewHelper.getTranslationY(mView);
+			mEndX = translationX;
+			mEndY = translationY;
+			mAnimator.start();
+		}
+
+		@Override
+		public void onAnimationUpdate(ValueAnimator animation) {
+			float fraction = animation.getAnimatedFraction();
+			ViewHelper.setTranslationX(mView, mStartX + fraction * (mEndX - mStartX));
+			ViewHelper.setTranslationY(mView, mStartY + fraction * (mEndY - mStartY));
+		}
+	}
+}